@@ -0,0 +1,59 @@
+package glostrainer.bench;
+
+import glostrainer.model.CorpusGenerator;
+import glostrainer.model.WordEntry;
+import glostrainer.model.WordlistModel;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates the synthetic word lists that the benchmarks run on. The lists are
+ * the same for a given size, so results from different runs can be compared.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public final class BenchmarkLists
+{
+
+    private static final long SEED = 20140501L;
+
+    /**
+     * The model logs at INFO level, which would flood the console during a
+     * benchmark run. A strong reference is kept so the level isn't lost when
+     * the logger is garbage collected.
+     */
+    private static final Logger MODEL_LOGGER = Logger.getLogger("glostrainer");
+
+    static
+    {
+        MODEL_LOGGER.setLevel(Level.WARNING);
+    }
+
+    private BenchmarkLists()
+    {
+    }
+
+    /**
+     * Creates a list of word entries of the given size with the default word
+     * class mix of <code>CorpusGenerator</code>.
+     *
+     * @param size the number of entries
+     * @return the entries
+     */
+    public static List<WordEntry> createEntries(int size)
+    {
+        return new CorpusGenerator(SEED).generate(size);
+    }
+
+    /**
+     * Creates a word list model of the given size.
+     *
+     * @param size the number of entries
+     * @return the model
+     */
+    public static WordlistModel createModel(int size)
+    {
+        return new CorpusGenerator(SEED).generateModel(size);
+    }
+}
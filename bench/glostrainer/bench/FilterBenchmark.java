@@ -0,0 +1,127 @@
+package glostrainer.bench;
+
+import glostrainer.controller.WordlistFilter;
+import glostrainer.model.WordlistModel;
+import glostrainer.model.WordlistQuery;
+import glostrainer.view.GUIHelpers;
+import glostrainer.view.CollatingRowSorter;
+import glostrainer.view.WordlistTableModel;
+import java.util.concurrent.TimeUnit;
+import javax.swing.table.TableModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the word list filter: running a query against the list, typing the
+ * query one character at a time, where each query refines the result of the
+ * previous one, running a fuzzy query that tolerates two typos, and applying
+ * the result to the table's row sorter. The query texts are a single letter,
+ * which is too short for the search index, text that about one in 30
+ * definitions start with, and a rare trigram.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FilterBenchmark
+{
+
+    @Param(
+    {
+        "1000", "100000", "1000000"
+    })
+    public int size;
+
+    @Param(
+    {
+        "a", "to s", "blö"
+    })
+    public String text;
+
+    @Param(
+    {
+        "false", "true"
+    })
+    public boolean includeOptionalForms;
+
+    private WordlistModel model;
+    private WordlistFilter filter;
+    private WordlistQuery query;
+    private WordlistQuery fuzzyQuery;
+    private WordlistFilter.Result result;
+    private CollatingRowSorter<TableModel> sorter;
+
+    @Setup(Level.Trial)
+    public void createFilter()
+    {
+        model = BenchmarkLists.createModel(size);
+        filter = new WordlistFilter(model, (r) ->
+        {
+        });
+        query = new WordlistQuery(text, false, includeOptionalForms);
+        result = filter.query(query);
+        fuzzyQuery = new WordlistQuery(text, false, includeOptionalForms, 2);
+        filter.query(fuzzyQuery);
+
+        WordlistTableModel tableModel = new WordlistTableModel();
+        tableModel.setWordlist(model);
+        sorter = new CollatingRowSorter<>(tableModel, GUIHelpers.createSwedishCollator());
+    }
+
+    @Benchmark
+    public WordlistFilter.Result query()
+    {
+        return filter.query(query);
+    }
+
+    @Benchmark
+    public WordlistFilter.Result typeText()
+    {
+        WordlistFilter.Result typed = null;
+        for (int length = 1; length <= text.length(); length++)
+        {
+            typed = filter.refine(new WordlistQuery(text.substring(0, length), false, includeOptionalForms), typed);
+        }
+        return typed;
+    }
+
+    @Benchmark
+    public WordlistFilter.Result fuzzyQuery()
+    {
+        return filter.query(fuzzyQuery);
+    }
+
+    @Benchmark
+    public int typeDictionaryForm()
+    {
+        int found = 0;
+        for (int length = 1; length <= text.length(); length++)
+        {
+            String typed = text.substring(0, length);
+            found += model.findDictionaryFormCompletions(typed, 8).size();
+            found += model.findWordsWithDictionaryForm(typed).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int showResult()
+    {
+        sorter.setShownRows(result.getRows(), null);
+        return sorter.getViewRowCount();
+    }
+}
@@ -0,0 +1,95 @@
+package glostrainer.bench;
+
+import glostrainer.model.MappedWordlist;
+import glostrainer.model.WordEntry;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures reading entries from a <code>MappedWordlist</code>: random access,
+ * which mostly misses the cache, and scrolling a table one row at a time, where
+ * all but one of the visible rows are cached.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MappedWordlistBenchmark
+{
+
+    @Param(
+    {
+        "1000", "100000", "1000000"
+    })
+    public int size;
+
+    /**
+     * The number of rows that a table shows at once.
+     */
+    private static final int VISIBLE_ROWS = 40;
+
+    private static final int INDEX_COUNT = 4096;
+
+    private File file;
+    private MappedWordlist wordlist;
+    private int[] indices;
+    private int cursor;
+    private int topRow;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException
+    {
+        file = File.createTempFile("glostrainer-bench-mapped", ".gtl");
+        BenchmarkLists.createModel(size).saveToFile(file);
+        wordlist = MappedWordlist.open(file);
+        Random random = new Random(1);
+        indices = new int[INDEX_COUNT];
+        for (int i = 0; i < INDEX_COUNT; i++)
+        {
+            indices[i] = random.nextInt(size);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException
+    {
+        wordlist.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public WordEntry get()
+    {
+        return wordlist.getWordEntryAtIndex(indices[cursor++ & (INDEX_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public void scroll(Blackhole blackhole)
+    {
+        topRow = (topRow + 1) % (size - VISIBLE_ROWS);
+        for (int row = topRow; row < topRow + VISIBLE_ROWS; row++)
+        {
+            blackhole.consume(wordlist.getWordEntryAtIndex(row));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package glostrainer.bench;
+
+import glostrainer.model.WordlistModel;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures saving a word list to and loading it from a file. The files are
+ * written to the temporary directory, so the results depend on the disk and
+ * the file system cache.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PersistenceBenchmark
+{
+
+    @Param(
+    {
+        "1000", "100000", "1000000"
+    })
+    public int size;
+
+    private WordlistModel model;
+    private File loadFile;
+    private File saveFile;
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException
+    {
+        model = BenchmarkLists.createModel(size);
+        loadFile = File.createTempFile("glostrainer-bench-load", ".gtl");
+        saveFile = File.createTempFile("glostrainer-bench-save", ".gtl");
+        model.saveToFile(loadFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles()
+    {
+        loadFile.delete();
+        saveFile.delete();
+        new File(loadFile.getPath() + ".journal").delete();
+        new File(saveFile.getPath() + ".journal").delete();
+    }
+
+    /**
+     * Measures writing the whole list. The journal is dropped first, since
+     * saving to the same file again would otherwise only append the (empty)
+     * set of changes to it.
+     */
+    @Benchmark
+    public void saveToFile() throws IOException
+    {
+        model.setJournal(null);
+        model.saveToFile(saveFile);
+    }
+
+    @Benchmark
+    public WordlistModel loadFromFile() throws IOException, ClassNotFoundException
+    {
+        return WordlistModel.loadFromFile(loadFile);
+    }
+}
@@ -0,0 +1,62 @@
+package glostrainer.bench;
+
+import glostrainer.model.WordlistModel;
+import glostrainer.view.QuizTableModel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures populating the quiz table after a list has been loaded, and
+ * collecting the selected word forms when a quiz is started.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class QuizTableBenchmark
+{
+
+    @Param(
+    {
+        "1000", "100000", "1000000"
+    })
+    public int size;
+
+    private WordlistModel model;
+    private QuizTableModel populatedTableModel;
+
+    @Setup(Level.Trial)
+    public void createModel()
+    {
+        model = BenchmarkLists.createModel(size);
+        populatedTableModel = new QuizTableModel(model);
+    }
+
+    @Benchmark
+    public QuizTableModel populate()
+    {
+        return new QuizTableModel(model);
+    }
+
+    @Benchmark
+    public List<String> getSelectedWordForms()
+    {
+        return populatedTableModel.getSelectedWordForms();
+    }
+}
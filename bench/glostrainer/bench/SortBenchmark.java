@@ -0,0 +1,81 @@
+package glostrainer.bench;
+
+import glostrainer.view.CollatingRowSorter;
+import glostrainer.view.GUIHelpers;
+import glostrainer.view.WordlistPanel;
+import glostrainer.view.WordlistTableModel;
+import java.text.RuleBasedCollator;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures sorting the word list table by dictionary form with the Swedish
+ * collator. The cold benchmark starts with an empty collation key cache, like
+ * the first sort after loading a list, while the warm one sorts again with
+ * all keys cached.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SortBenchmark
+{
+
+    @Param(
+    {
+        "1000", "100000", "1000000"
+    })
+    public int size;
+
+    private static final List<RowSorter.SortKey> SORT_KEYS = Collections.singletonList(
+            new RowSorter.SortKey(WordlistPanel.SWEDISH_DICTIONARY_FORM_COLUMN, SortOrder.ASCENDING));
+
+    private WordlistTableModel tableModel;
+    private RuleBasedCollator collator;
+    private CollatingRowSorter<TableModel> warmSorter;
+
+    @Setup(Level.Trial)
+    public void createTableModel()
+    {
+        tableModel = new WordlistTableModel();
+        tableModel.setWordlist(BenchmarkLists.createModel(size));
+        collator = GUIHelpers.createSwedishCollator();
+        warmSorter = new CollatingRowSorter<>(tableModel, collator);
+        warmSorter.setSortKeys(SORT_KEYS);
+    }
+
+    @Benchmark
+    public int sortCold()
+    {
+        CollatingRowSorter<TableModel> sorter = new CollatingRowSorter<>(tableModel, collator);
+        sorter.setSortKeys(SORT_KEYS);
+        return sorter.convertRowIndexToModel(0);
+    }
+
+    @Benchmark
+    public int sortWarm()
+    {
+        warmSorter.sort();
+        return warmSorter.convertRowIndexToModel(0);
+    }
+}
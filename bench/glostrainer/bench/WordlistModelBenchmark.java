@@ -0,0 +1,98 @@
+package glostrainer.bench;
+
+import glostrainer.model.WordEntry;
+import glostrainer.model.WordlistModel;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the CRUD operations of <code>WordlistModel</code>. Adding and
+ * removing is measured in pairs so that the list keeps its size.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class WordlistModelBenchmark
+{
+
+    @Param(
+    {
+        "1000", "100000", "1000000"
+    })
+    public int size;
+
+    /**
+     * Random indices are picked up front, since picking them in the benchmark
+     * methods would be measured as well.
+     */
+    private static final int INDEX_COUNT = 4096;
+
+    private WordlistModel model;
+    private List<WordEntry> spareEntries;
+    private int[] indices;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void createModel()
+    {
+        model = BenchmarkLists.createModel(size);
+        spareEntries = BenchmarkLists.createEntries(INDEX_COUNT);
+        Random random = new Random(1);
+        indices = new int[INDEX_COUNT];
+        for (int i = 0; i < INDEX_COUNT; i++)
+        {
+            indices[i] = random.nextInt(size);
+        }
+    }
+
+    private int nextIndex()
+    {
+        return indices[cursor++ & (INDEX_COUNT - 1)];
+    }
+
+    @Benchmark
+    public WordEntry get()
+    {
+        return model.getWordEntryAtIndex(nextIndex());
+    }
+
+    @Benchmark
+    public void replace()
+    {
+        model.replaceWordEntryAtIndex(nextIndex(), spareEntries.get(cursor & (INDEX_COUNT - 1)));
+    }
+
+    @Benchmark
+    public void addAndRemoveLast()
+    {
+        model.addWordEntry(spareEntries.get(cursor++ & (INDEX_COUNT - 1)));
+        model.removeWordEntryAtIndex(model.getEntryCount() - 1);
+    }
+
+    @Benchmark
+    public void removeAndAddLast()
+    {
+        int index = nextIndex();
+        WordEntry word = model.getWordEntryAtIndex(index);
+        model.removeWordEntryAtIndex(index);
+        model.addWordEntry(word);
+    }
+}
@@ -0,0 +1,145 @@
+package glostrainer.model;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+/**
+ * The Flight Recorder events of <code>PerformanceEvents</code>. This is the
+ * only class that refers to the <code>jdk.jfr</code> API, which needs Java 11
+ * to compile, so it lives in the <code>src-jfr</code> folder, which
+ * <code>build.xml</code> compiles for Java 11 after the rest of GlosTrainer
+ * has been compiled for Java 8. <code>PerformanceEvents</code> only loads it
+ * by name, so GlosTrainer still runs on Java 8 runtimes without it.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+final class FlightRecorderEvents implements PerformanceEvents.Recorder
+{
+
+    private static final List<Class<? extends PhaseEvent>> PHASE_EVENT_CLASSES = Arrays.asList(
+            LoadEvent.class, SaveEvent.class, FilterEvent.class, SortEvent.class, QuizPopulationEvent.class);
+
+    FlightRecorderEvents()
+    {
+    }
+
+    @Override
+    public PerformanceEvents.Span begin(PerformanceEvents.Phase phase, PerformanceEvents.Span noSpan)
+    {
+        PhaseEvent event = createEvent(phase);
+        if (!event.isEnabled())
+        {
+            return noSpan;
+        }
+        event.begin();
+        return (entryCount, byteCount, description) ->
+        {
+            event.end();
+            if (event.shouldCommit())
+            {
+                event.entryCount = entryCount;
+                event.byteCount = byteCount;
+                event.description = description;
+                event.commit();
+            }
+        };
+    }
+
+    private static PhaseEvent createEvent(PerformanceEvents.Phase phase)
+    {
+        switch (phase)
+        {
+            case LOAD:
+                return new LoadEvent();
+            case SAVE:
+                return new SaveEvent();
+            case FILTER:
+                return new FilterEvent();
+            case SORT:
+                return new SortEvent();
+            default:
+                return new QuizPopulationEvent();
+        }
+    }
+
+    @Override
+    public void startRecording(String file)
+    {
+        try
+        {
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("GlosTrainer");
+            for (Class<? extends PhaseEvent> eventClass : PHASE_EVENT_CLASSES)
+            {
+                recording.enable(eventClass).withoutThreshold();
+            }
+            recording.setToDisk(true);
+            recording.setDestination(Paths.get(file));
+            recording.setDumpOnExit(true);
+            recording.start();
+            Logger.getLogger(FlightRecorderEvents.class.getName()).log(Level.INFO, "Recording to {0}", file);
+        } catch (IOException | ParseException | RuntimeException ex)
+        {
+            Logger.getLogger(FlightRecorderEvents.class.getName()).log(Level.WARNING, "Could not start a Flight Recorder recording", ex);
+        }
+    }
+
+    @Category("GlosTrainer")
+    abstract static class PhaseEvent extends Event
+    {
+
+        @Label("Entries")
+        @Description("The number of word entries handled")
+        int entryCount;
+
+        @Label("Bytes")
+        @DataAmount
+        long byteCount;
+
+        @Label("Description")
+        String description;
+    }
+
+    @Name("glostrainer.Load")
+    @Label("Load Word List")
+    static class LoadEvent extends PhaseEvent
+    {
+    }
+
+    @Name("glostrainer.Save")
+    @Label("Save Word List")
+    static class SaveEvent extends PhaseEvent
+    {
+    }
+
+    @Name("glostrainer.Filter")
+    @Label("Filter Word List")
+    static class FilterEvent extends PhaseEvent
+    {
+    }
+
+    @Name("glostrainer.Sort")
+    @Label("Sort Table")
+    static class SortEvent extends PhaseEvent
+    {
+    }
+
+    @Name("glostrainer.QuizPopulation")
+    @Label("Populate Quiz Table")
+    static class QuizPopulationEvent extends PhaseEvent
+    {
+    }
+}
@@ -1,6 +1,8 @@
 package glostrainer;
 
 import glostrainer.controller.MainController;
+import glostrainer.model.PerformanceEvents;
+import glostrainer.model.WordlistMetrics;
 import javax.swing.UIManager;
 import javax.swing.UIManager.LookAndFeelInfo;
 import javax.swing.UnsupportedLookAndFeelException;
@@ -15,8 +17,10 @@ public class Main
 
     /**
      * The starting point of the application. Sets the default Java Swing Look &
-     * Feel to Nimbus, if it exists. Then, initializes the main controller for
-     * the application.
+     * Feel to Nimbus, if it exists. Then, starts a Flight Recorder recording if
+     * one was requested with the <code>glostrainer.jfr</code> system property,
+     * registers the word list statistics with JMX and initializes the main
+     * controller for the application.
      *
      * @param args the command line arguments
      */
@@ -37,6 +41,8 @@ public class Main
             // If Nimbus is not available, set the GUI to another look and feel
         }
 
+        PerformanceEvents.startRecordingIfRequested();
+        WordlistMetrics.registerMBean();
         MainController mc = new MainController();
     }
 
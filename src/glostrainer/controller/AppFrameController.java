@@ -1,15 +1,27 @@
 package glostrainer.controller;
 
 import glostrainer.view.GUIHelpers;
+import glostrainer.model.AtomicFileOutputStream;
+import glostrainer.model.MappedWordlist;
+import glostrainer.model.PerformanceEvents;
+import glostrainer.model.TextFolding;
 import glostrainer.model.WordEntry;
+import glostrainer.model.WordlistChangeEvent;
+import glostrainer.model.WordlistJournal;
+import glostrainer.model.WordlistMetrics;
+import glostrainer.model.WordlistMetrics.Operation;
 import glostrainer.model.WordlistModel;
+import glostrainer.model.WordlistQuery;
+import glostrainer.model.WordlistReader;
+import glostrainer.model.WordlistSearchIndex;
+import glostrainer.model.WordlistWriter;
+import glostrainer.view.CollatingRowSorter;
 import glostrainer.view.WordlistPanel;
 import glostrainer.view.GUIFrame;
-import static glostrainer.view.WordlistPanel.DEFINITION_COLUMN;
-import static glostrainer.view.WordlistPanel.OPTIONAL_FORMS_COLUMN;
-import static glostrainer.view.WordlistPanel.SWEDISH_DICTIONARY_FORM_COLUMN;
 import java.awt.Point;
 import java.awt.event.ActionEvent;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
@@ -19,29 +31,32 @@ import java.awt.event.WindowEvent;
 import java.awt.print.PrinterException;
 import java.io.File;
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.RuleBasedCollator;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import javax.swing.AbstractAction;
+import javax.swing.Action;
 import static javax.swing.Action.SHORT_DESCRIPTION;
 import javax.swing.DefaultListSelectionModel;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
 import javax.swing.JTable;
 import javax.swing.JTable.PrintMode;
-import javax.swing.RowFilter;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.UIManager;
+import javax.swing.event.ChangeEvent;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
 
 /**
  * In the MVC pattern, the controller facilitates the communication between the
@@ -75,6 +90,64 @@ public class AppFrameController implements IController
     // keep a reference to the file chooser so we can retain information about last saved folder
     JFileChooser chooser;
 
+    /**
+     * The load or save task that is currently running in the background, or
+     * null if there is none.
+     */
+    private SwingWorker<Void, ?> currentTask;
+
+    /**
+     * Finds the rows that match the filter text field in the background.
+     */
+    private WordlistFilter filter;
+
+    /**
+     * The result of the last finished filter query, which the table is
+     * currently filtered with, or null if no query has finished yet.
+     */
+    private WordlistFilter.Result filterResult;
+
+    /**
+     * The file that the list was last loaded from or saved to, which it is
+     * saved to automatically, or null if there is none.
+     */
+    private File currentFile;
+
+    /**
+     * The list that is shown read-only in the table instead of the model, or
+     * null if the model is shown and can be edited.
+     */
+    private MappedWordlist readOnlyList;
+
+    /**
+     * Saves the list to the current file once the user has stopped editing
+     * it for a while.
+     */
+    private final AutosaveScheduler autosaveScheduler;
+
+    /**
+     * Why a list is being saved, which decides what happens once the save
+     * has finished or failed.
+     */
+    private enum SaveReason
+    {
+
+        /**
+         * The user chose to save the list.
+         */
+        USER,
+        /**
+         * The list is saved automatically, so failures shouldn't make the
+         * user choose another file.
+         */
+        AUTOSAVE,
+        /**
+         * The user chose to save the list before closing the application,
+         * which is closed once the list has been saved.
+         */
+        EXIT
+    }
+
     /**
      * Creates a new WordlistFrameController with the given model and
      * view.getEditWordlistTab().
@@ -90,7 +163,29 @@ public class AppFrameController implements IController
         this.view = view;
 
         chooser = new JFileChooser();
+        autosaveScheduler = new AutosaveScheduler(model, this::autosave);
         setupViewEvents();
+        model.addWordlistListener(this::wordlistChanged);
+    }
+
+    /**
+     * Updates the entry count and the filter, and schedules the list to be
+     * saved, after the list has changed. The tables listen to the list
+     * themselves. While a list is loading, only the entry count is updated,
+     * since the loader refreshes the filter and schedules the save once it is
+     * done.
+     *
+     * @param e the changes
+     */
+    private void wordlistChanged(WordlistChangeEvent e)
+    {
+        updateEntryCount();
+        if (currentTask instanceof LoadListWorker)
+        {
+            return;
+        }
+        autosaveScheduler.listChanged();
+        refreshFilter();
     }
 
     @Override
@@ -113,6 +208,7 @@ public class AppFrameController implements IController
      */
     private void setupViewEvents()
     {
+        this.view.getEditWordlistTab().getWordlistTableModel().setWordlist(model);
         setupActions();
         this.view.getEditWordlistTab().getNewEntryButton().requestFocus();
         this.view.getEditWordlistTab().getEditEntryButton().setEnabled(false);
@@ -141,11 +237,14 @@ public class AppFrameController implements IController
         this.view.getEditWordlistTab().getNewEntryButton().setAction(new NewEntryAction());
         this.view.getEditWordlistTab().getEditEntryButton().setAction(new EditEntryAction());
         this.view.getEditWordlistTab().getDeleteEntryButton().setAction(new DeleteEntryAction());
+        this.view.getEditWordlistTab().getFormOfButton().setAction(new FormOfAction());
         // list panel
         this.view.getEditWordlistTab().getImportButton().setAction(new ImportListAction());
         this.view.getEditWordlistTab().getExportButton().setAction(new ExportListAction());
+        this.view.getEditWordlistTab().getOpenReadOnlyButton().setAction(new OpenReadOnlyAction());
         this.view.getEditWordlistTab().getPrintListButton().setAction(new PrintListAction());
         this.view.getEditWordlistTab().getClearListButton().setAction(new ClearListAction());
+        this.view.getEditWordlistTab().getCancelTaskButton().setAction(new CancelTaskAction());
     }
 
     /**
@@ -154,158 +253,140 @@ public class AppFrameController implements IController
      * considering the intended target group of this application. The Swedish
      * alphabet consists of the letters A-Z as in English, followed by Å (A with
      * a ring above), Ä (A with two dots above) and Ö (O with two dots above),
-     * in this particular order. For the sorting, we ignore letter cases.
+     * in this particular order. For the sorting, we ignore letter cases. The
+     * sorter caches the collation key of each cell, so the strings don't have
+     * to be collated again for every comparison.
      */
     private void setupTableSorter()
     {
-        TableRowSorter<TableModel> sorter = new TableRowSorter<>(view.getEditWordlistTab().getWordlistTable().getModel());
+        CollatingRowSorter<TableModel> sorter = new CollatingRowSorter<>(view.getEditWordlistTab().getWordlistTable().getModel(), GUIHelpers.createSwedishCollator());
         view.getEditWordlistTab().getWordlistTable().setRowSorter(sorter);
+    }
 
-        try
-        {
-            String swedishAlphabet = "< a < b < c < d < e < f < g < h < i"
-                    + "< j < k < l < m < n < o < p < q < r < s < t < u"
-                    + "< v < w < y < z < \u00E5 < \u00E4 < \u00F6";
-            final RuleBasedCollator ruleBasedCollator = new RuleBasedCollator(swedishAlphabet);
-            Comparator<String> swedishComparator = (String o1, String o2) ->
-            {
-                return ruleBasedCollator.compare(o1.toLowerCase(), o2.toLowerCase());
-            };
-            for (int i = 0; i < view.getEditWordlistTab().getWordlistTable().getColumnCount(); i++)
-            {
-                sorter.setComparator(i, swedishComparator);
-            }
+    /**
+     * Sets up the filter that makes the table show a subset of its model when
+     * the user has entered text in the filter text field. We also need to
+     * consider if the checkboxes for searching in optional word forms and
+     * complete matches are checked. If the filter text field is empty, no
+     * filtering is done, i.e. all entries are shown.
+     *
+     * The matching rows are found in the background by a
+     * <code>WordlistFilter</code>, and once the result is ready, the table is
+     * handed the matching rows in the order to show them in, so it doesn't
+     * have to filter or sort the rows itself.
+     */
+    private void setupTableRowFilter()
+    {
+        filter = new WordlistFilter(model, this::showFilterResult);
+    }
 
-        } catch (ParseException ex)
+    /**
+     * Filters the table with the result of a finished filter query, and
+     * updates the entry count with the number of matches that the query
+     * found. The rows found by a fuzzy query are ranked by how many typos
+     * they are away from the filter text. Results are ignored while a list is
+     * shown read-only, since they are row numbers of the model.
+     *
+     * @param result the result to show
+     */
+    private void showFilterResult(WordlistFilter.Result result)
+    {
+        if (isReadOnly())
         {
-            // shouldn't happen
-            Logger.getLogger(AppFrameController.class.getName()).log(Level.SEVERE, null, ex);
+            return;
         }
+        filterResult = result;
+        CollatingRowSorter<?> sorter = (CollatingRowSorter<?>) view.getEditWordlistTab().getWordlistTable().getRowSorter();
+        sorter.setShownRows(result.getRows(), result.isRanked() ? result::getEditDistance : null);
+        updateEntryCount();
     }
 
     /**
-     * Returns a filter so that the table shows a subset of its model when the
-     * user has entered text in the filter text field. We also need to consider
-     * if the checkboxes for searching in optional word forms and complete
-     * matches are checked. If the filter text field is empty, no filtering
-     * should be done, i.e. all entries should be returned.
+     * Returns a query for the current contents of the filter text field and
+     * states of the filter checkboxes. Exact and fuzzy queries ignore case
+     * whether or not "Ignore case" is checked, like they always have, so the
+     * checkbox only changes how text is looked for within the fields.
      *
-     * @return
+     * @return the query
      */
-    private void setupTableRowFilter()
+    private WordlistQuery getFilterQuery()
     {
-        // TODO: refactor?
-        RowFilter<TableModel, Integer> rf = new RowFilter()
-        {
-            /**
-             * Given an entry, return true if is to be included according to the
-             * filter, otherwise false.
-             *
-             * @param entry
-             * @return
-             */
-            @Override
-            public boolean include(RowFilter.Entry entry)
-            {
-                // if the search string is empty, return true for everything
-                String textToLookFor = view.getEditWordlistTab().getFilterField().getText();
-                if (textToLookFor.equals(""))
-                {
-                    return true;
-                }
-
-                if (!view.getEditWordlistTab().getExactMatchCheckButton().isSelected())
-                {
-                    boolean wordIsInDictionaryFormOrDefinitionColumn
-                            = entry.getStringValue(SWEDISH_DICTIONARY_FORM_COLUMN).contains(textToLookFor)
-                            || entry.getStringValue(DEFINITION_COLUMN).contains(textToLookFor);
-
-                    if (!view.getEditWordlistTab().getAllFormsCheckButton().isSelected())
-                    {
-                        return wordIsInDictionaryFormOrDefinitionColumn;
-                    } else // all forms
-                    {
-                        if (wordIsInDictionaryFormOrDefinitionColumn)
-                        {
-                            return true;
-                        }
-
-                        return entry.getStringValue(OPTIONAL_FORMS_COLUMN).contains(textToLookFor);
-                    }
-                } else // exact match
-                {
-                    boolean wordIsInDictionaryFormOrDefinitionColumn
-                            = entry.getStringValue(SWEDISH_DICTIONARY_FORM_COLUMN).equalsIgnoreCase(textToLookFor)
-                            || entry.getStringValue(DEFINITION_COLUMN).equalsIgnoreCase(textToLookFor);
-
-                    if (!view.getEditWordlistTab().getAllFormsCheckButton().isSelected())
-                    {
-                        return wordIsInDictionaryFormOrDefinitionColumn;
-                    } else // all forms
-                    {
-                        if (wordIsInDictionaryFormOrDefinitionColumn)
-                        {
-                            return true;
-                        }
+        WordlistPanel panel = view.getEditWordlistTab();
+        boolean exactMatch = panel.getExactMatchCheckButton().isSelected();
+        int maxTypos = panel.getFuzzyCheckBox().isSelected() ? (Integer) panel.getMaxTyposSpinner().getValue() : 0;
+        boolean ignoreCase = panel.getIgnoreCaseCheckBox().isSelected() || exactMatch || maxTypos > 0;
+        return new WordlistQuery(panel.getFilterField().getText(),
+                exactMatch,
+                panel.getAllFormsCheckButton().isSelected(),
+                maxTypos,
+                TextFolding.of(ignoreCase, panel.getIgnoreDiacriticsCheckBox().isSelected()));
+    }
 
-                        // ugly hack
-                        String[] optionalFormsAsArray = entry.getStringValue(OPTIONAL_FORMS_COLUMN).split(", ");
-                        for (String s : optionalFormsAsArray)
-                        {
-                            if (s.equalsIgnoreCase(textToLookFor))
-                            {
-                                return true;
-                            }
-                        }
-                        return false;
-                    }
-                }
-            }
-        };
-        TableRowSorter sorter = (TableRowSorter) view.getEditWordlistTab().getWordlistTable().getRowSorter();
-        sorter.setRowFilter(rf);
+    /**
+     * Runs the current filter query again after the list has changed, since
+     * the row numbers of the previous result are no longer valid.
+     */
+    private void refreshFilter()
+    {
+        filter.submit(getFilterQuery());
     }
 
     /**
-     * Listen to changes in the filter text field.
-     *
-     * @param sorter
-     * @param rf
+     * Listen to changes in the filter text field, the filter and folding
+     * checkboxes and the number of typos. Typing is debounced by the filter,
+     * while toggling a checkbox or changing the number of typos reruns the
+     * query right away.
+     * The "Exact match" checkbox is disabled in fuzzy mode, since fuzzy
+     * queries always compare whole fields.
      */
     private void setupFilterFieldListener()
     {
-        TableRowSorter sorter = (TableRowSorter) view.getEditWordlistTab().getWordlistTable().getRowSorter();
-        RowFilter rf = sorter.getRowFilter();
-
         this.view.getEditWordlistTab().getFilterField().getDocument().addDocumentListener(
                 new DocumentListener()
                 {
                     @Override
                     public void changedUpdate(DocumentEvent e)
                     {
-                        sorter.setRowFilter(rf);
-                        updateEntryCount();
+                        filter.submit(getFilterQuery());
                     }
 
                     @Override
                     public void insertUpdate(DocumentEvent e)
                     {
-                        sorter.setRowFilter(rf);
-                        updateEntryCount();
+                        filter.submit(getFilterQuery());
                     }
 
                     @Override
                     public void removeUpdate(DocumentEvent e)
                     {
-                        sorter.setRowFilter(rf);
-                        updateEntryCount();
+                        filter.submit(getFilterQuery());
                     }
                 });
+        ItemListener checkBoxListener = (ItemEvent e) ->
+        {
+            filter.submitNow(getFilterQuery());
+        };
+        this.view.getEditWordlistTab().getExactMatchCheckButton().addItemListener(checkBoxListener);
+        this.view.getEditWordlistTab().getAllFormsCheckButton().addItemListener(checkBoxListener);
+        this.view.getEditWordlistTab().getIgnoreCaseCheckBox().addItemListener(checkBoxListener);
+        this.view.getEditWordlistTab().getIgnoreDiacriticsCheckBox().addItemListener(checkBoxListener);
+        this.view.getEditWordlistTab().getFuzzyCheckBox().addItemListener((ItemEvent e) ->
+        {
+            view.getEditWordlistTab().getExactMatchCheckButton().setEnabled(e.getStateChange() != ItemEvent.SELECTED);
+            filter.submitNow(getFilterQuery());
+        });
+        this.view.getEditWordlistTab().getMaxTyposSpinner().addChangeListener((ChangeEvent e) ->
+        {
+            if (view.getEditWordlistTab().getFuzzyCheckBox().isSelected())
+            {
+                filter.submitNow(getFilterQuery());
+            }
+        });
     }
 
     /**
      * Disable buttons for editing and deleting entries if no rows are selected,
-     * or if the empty row is selected.
+     * if the empty row is selected, or if a list is shown read-only.
      */
     private void setupTableSelectionChangedListener()
     {
@@ -314,7 +395,7 @@ public class AppFrameController implements IController
         DefaultListSelectionModel listSelectionModel = (DefaultListSelectionModel) table.getSelectionModel();
         listSelectionModel.addListSelectionListener((ListSelectionEvent e) ->
         {
-            if (table.getSelectedRowCount() == 0)
+            if (table.getSelectedRowCount() == 0 || isReadOnly())
             {
                 view.getEditWordlistTab().getEditEntryButton().setEnabled(false);
                 view.getEditWordlistTab().getDeleteEntryButton().setEnabled(false);
@@ -374,7 +455,9 @@ public class AppFrameController implements IController
     }
 
     /**
-     * Ask the user for confirmation when closing the window.
+     * Ask the user for confirmation when closing the window. If the list has
+     * unsaved changes, the user gets to choose between saving them first,
+     * closing without saving, and not closing at all.
      */
     private void setupWindowClosingConfirmationEvent()
     {
@@ -387,11 +470,36 @@ public class AppFrameController implements IController
             {
                 SwingUtilities.invokeLater(() ->
                 {
-                    int result = JOptionPane.showConfirmDialog(view.getFrame(),
-                            "Do you really want to close the application? All unsaved changes will be lost.",
+                    if (!model.isDirty())
+                    {
+                        int result = JOptionPane.showConfirmDialog(view.getFrame(),
+                                "Do you really want to close the application?",
+                                "Exit",
+                                JOptionPane.WARNING_MESSAGE);
+                        if (result == JOptionPane.YES_OPTION)
+                        {
+                            System.exit(0);
+                        }
+                        return;
+                    }
+
+                    Object[] options =
+                    {
+                        "Save", "Don't Save", UIManager.getString("OptionPane.cancelButtonText")
+                    };
+                    int result = JOptionPane.showOptionDialog(view.getFrame(),
+                            "The word list has unsaved changes. Do you want to save them before closing?",
                             "Exit",
-                            JOptionPane.WARNING_MESSAGE);
+                            JOptionPane.YES_NO_CANCEL_OPTION,
+                            JOptionPane.WARNING_MESSAGE,
+                            null,
+                            options,
+                            options[0]
+                    );
                     if (result == JOptionPane.YES_OPTION)
+                    {
+                        saveAndExit();
+                    } else if (result == JOptionPane.NO_OPTION)
                     {
                         System.exit(0);
                     }
@@ -401,6 +509,51 @@ public class AppFrameController implements IController
         });
     }
 
+    /**
+     * Saves the list to the current file, or lets the user choose a file if
+     * there is none, and closes the application once the list has been saved.
+     */
+    private void saveAndExit()
+    {
+        if (currentTask != null)
+        {
+            JOptionPane.showMessageDialog(view.getFrame(),
+                    "Please wait until the word list has been loaded or saved.",
+                    "Exit",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        autosaveScheduler.cancel();
+        if (currentFile != null)
+        {
+            startTask(new SaveListWorker(currentFile, SaveReason.EXIT));
+        } else
+        {
+            exportList(SaveReason.EXIT);
+        }
+    }
+
+    /**
+     * Saves the list to the current file in the background. Invoked by the
+     * autosave scheduler once the user has stopped editing the list. Lists
+     * that have never been loaded or saved are not saved automatically, since
+     * there is no file to save them to.
+     */
+    private void autosave()
+    {
+        if (currentFile == null)
+        {
+            return;
+        }
+        if (currentTask != null)
+        {
+            // try again once the running task is hopefully done
+            autosaveScheduler.listChanged();
+            return;
+        }
+        startTask(new SaveListWorker(currentFile, SaveReason.AUTOSAVE));
+    }
+
     /**
      * Requests the newOrEditEntryFormController to open a New Entry form. If
      * the user accepts the new entry, we ask the controller for the saved entry
@@ -408,6 +561,10 @@ public class AppFrameController implements IController
      */
     public void openNewEntryForm()
     {
+        if (isReadOnly())
+        {
+            return;
+        }
         mainController.getNewOrEditEntryFormController().openNewEntryForm();
         if (mainController.getNewOrEditEntryFormController().wordEntryWasSaved)
         {
@@ -418,36 +575,13 @@ public class AppFrameController implements IController
              */
             WordEntry wordToAdd = new WordEntry(mainController.getNewOrEditEntryFormController().getCurrentWordEntry());
             this.model.addWordEntry(wordToAdd);
-            addTableRowFromWord(wordToAdd);
             // because the NewLineTable will add an empty line for us, we don't need to add an empty row here
 
-            this.updateEntryCount();
             // reset filter so the user can see their new entry
             view.getEditWordlistTab().getFilterField().setText("");
-
-            // add the new word to the quiz list
-            mainController.getQuizWordlistController().addWordEntryToQuizWordlist(wordToAdd);
         }
     }
 
-    /**
-     * Adds a row to the table with information from the given word. This does
-     * not affect the model that this controller is tied to.
-     *
-     * @param word the word to retrieve data from
-     */
-    private void addTableRowFromWord(WordEntry word)
-    {
-        DefaultTableModel tbm = (DefaultTableModel) this.view.getEditWordlistTab().getWordlistTable().getModel();
-        tbm.addRow(new String[]
-        {
-            word.getSwedishDictionaryForm(),
-            word.getDefinition(),
-            word.getWordClass().toString(),
-            word.getOptionalFormsAsString()
-        });
-    }
-
     /**
      * Requests the newOrEditEntryFormController to open an Edit Entry frame
      * with the selected row index from the table view.getEditWordlistTab().
@@ -474,18 +608,8 @@ public class AppFrameController implements IController
             WordEntry savedWord = mainController.getNewOrEditEntryFormController().getCurrentWordEntry();
             this.model.replaceWordEntryAtIndex(selectedIndexInModel, savedWord);
 
-            // edit table entry
-            DefaultTableModel tableModel = (DefaultTableModel) view.getEditWordlistTab().getWordlistTable().getModel();
-            tableModel.setValueAt(savedWord.getSwedishDictionaryForm(), selectedIndexInModel, WordlistPanel.SWEDISH_DICTIONARY_FORM_COLUMN);
-            tableModel.setValueAt(savedWord.getDefinition(), selectedIndexInModel, WordlistPanel.DEFINITION_COLUMN);
-            tableModel.setValueAt(savedWord.getWordClass(), selectedIndexInModel, WordlistPanel.WORD_CLASS_COLUMN);
-            tableModel.setValueAt(savedWord.getOptionalFormsAsString(), selectedIndexInModel, WordlistPanel.OPTIONAL_FORMS_COLUMN);
-
             // reset filter so the user can see their new entry
             view.getEditWordlistTab().getFilterField().setText("");
-
-            // update quiz view
-            mainController.getQuizWordlistController().editWordEntryInQuizWordlist(selectedIndexInModel, savedWord);
         }
     }
 
@@ -500,6 +624,10 @@ public class AppFrameController implements IController
      */
     public void tryOpenEditEntryForm()
     {
+        if (isReadOnly())
+        {
+            return;
+        }
         // Display an error if the user hasn't selected any rows, or more than one row.
         JTable wordListTable = this.view.getEditWordlistTab().getWordlistTable();
         int[] selectedTableRowIndicesInView = wordListTable.getSelectedRows();
@@ -524,6 +652,10 @@ public class AppFrameController implements IController
      */
     public void tryDeleteEntries()
     {
+        if (isReadOnly())
+        {
+            return;
+        }
         int[] selectedIndices = this.view.getEditWordlistTab().getWordlistTable().getSelectedRows();
         if (selectedIndices.length == 0 || selectedIndices[0] == this.view.getEditWordlistTab().getWordlistTable().getRowCount() - 1)
         {
@@ -546,25 +678,24 @@ public class AppFrameController implements IController
     }
 
     /**
-     * Deletes the selected rows in the table and removes them from the model.
-     * Deletion is performed by invoking <code>deleteWordAtIndex()</code> for
-     * each selected row.
+     * Deletes the selected rows in the table and removes them from the model
+     * in a single pass.
      */
     public void deleteSelectedTableEntries()
     {
         JTable table = this.view.getEditWordlistTab().getWordlistTable();
         int[] selectedIndices = table.getSelectedRows();
 
-        // delete indexes in reverse order because we need to delete entries in the view's table
-        for (int i = selectedIndices.length - 1; i >= 0; i--)
+        /*
+         Just as when we did editing, we must make sure that the selected row corresponds
+         to the right item in the model list, in case the user has sorted or filtered results.
+         */
+        int[] indicesInModel = new int[selectedIndices.length];
+        for (int i = 0; i < selectedIndices.length; i++)
         {
-            /*
-             Just as when we did editing, we must make sure that the selected row corresponds
-             to the right item in the model list, in case the user has sorted or filtered results.
-             */
-            int selectedIndexInModel = table.convertRowIndexToModel(selectedIndices[i]);
-            deleteWordAtIndex(selectedIndexInModel);
+            indicesInModel[i] = table.convertRowIndexToModel(selectedIndices[i]);
         }
+        this.model.removeWordEntriesAtIndices(indicesInModel);
     }
 
     /**
@@ -575,52 +706,92 @@ public class AppFrameController implements IController
     public void deleteWordAtIndex(int indexInModelToDelete)
     {
         this.model.removeWordEntryAtIndex(indexInModelToDelete);
-        // delete table entry
-        DefaultTableModel tableModel = (DefaultTableModel) view.getEditWordlistTab().getWordlistTable().getModel();
-        tableModel.removeRow(indexInModelToDelete);
-        this.updateEntryCount();
-        mainController.getQuizWordlistController().deleteWordEntryAtIndex(indexInModelToDelete);
+    }
+
+    /**
+     * Asks the user for a word form, e.g. one met while reading a text, and
+     * tells which words in the list have it as their dictionary form or one
+     * of their optional forms. The filter text is suggested as the form, and
+     * case and accents are ignored like the filter ignores them. The words
+     * are looked up in the form index of the model, and those that are shown
+     * in the table are selected.
+     */
+    public void lookUpForm()
+    {
+        if (isReadOnly())
+        {
+            return;
+        }
+        JTable table = view.getEditWordlistTab().getWordlistTable();
+        Object input = JOptionPane.showInputDialog(view.getFrame(), "Which word is this a form of?", "Form Of",
+                JOptionPane.QUESTION_MESSAGE, null, null, view.getEditWordlistTab().getFilterField().getText());
+        if (input == null || input.toString().trim().isEmpty())
+        {
+            return;
+        }
+        String form = input.toString().trim();
+        List<WordlistSearchIndex.FormOccurrence> occurrences = model.findWordsWithForm(form, getFilterQuery().getFolding());
+        if (occurrences.isEmpty())
+        {
+            JOptionPane.showMessageDialog(view.getFrame(), "No word in the list has the form \"" + form + "\".", "Form Of", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        table.clearSelection();
+        int firstRow = -1;
+        for (WordlistSearchIndex.FormOccurrence occurrence : occurrences)
+        {
+            WordEntry word = occurrence.getWord();
+            String formName = (occurrence.getFormName() != null) ? occurrence.getFormName() : "dictionary form";
+            message.append(String.format("\"%s\" is the %s of \"%s\" (%s, %s)%n", occurrence.getValue(), formName,
+                    word.getSwedishDictionaryForm(), word.getWordClass(), word.getDefinition()));
+
+            int index = model.getIndexOfId(word.getId());
+            int row = (index >= 0) ? table.convertRowIndexToView(index) : -1;
+            if (row >= 0)
+            {
+                table.addRowSelectionInterval(row, row);
+                firstRow = (firstRow < 0) ? row : Math.min(firstRow, row);
+            }
+        }
+        if (firstRow >= 0)
+        {
+            table.scrollRectToVisible(table.getCellRect(firstRow, 0, true));
+        }
+        JOptionPane.showMessageDialog(view.getFrame(), message.toString().trim(), "Form Of", JOptionPane.INFORMATION_MESSAGE);
     }
 
     /**
      * Updates the entry count label. Displays entry count and filtered words
      * count. Invoke this whenever you add or remove entries, or whenever the
-     * word entry table gets filtered.
+     * word entry table gets filtered. The filtered words count is the one
+     * found by the last filter query, so the table is not scanned here. While
+     * a list is shown read-only, its entry count and file name are shown.
      */
     public void updateEntryCount()
     {
+        if (isReadOnly())
+        {
+            int entryCount = readOnlyList.getEntryCount();
+            this.view.getEditWordlistTab().getEntryCountLabel().setText(String.format("%d %s in %s (read-only)",
+                    entryCount, (entryCount == 1) ? "entry" : "entries", readOnlyList.getFile().getName()));
+            return;
+        }
         int totalEntryCount = this.model.getEntryCount();
         String entryOrEntries = (totalEntryCount == 1) ? "entry" : "entries";
-        int filteredEntryCount = getFilteredRowCount();
-        String filteredEntryOrEntries = (filteredEntryCount == 1) ? "entry" : "entries";
 
-        if (this.view.getEditWordlistTab().getFilterField().getText().equals("")) // are we filtering something?
+        if (filterResult == null || filterResult.getQuery().isEmpty()) // are we filtering something?
         {
             this.view.getEditWordlistTab().getEntryCountLabel().setText(String.format("%d %s in list", totalEntryCount, entryOrEntries));
         } else
         {
+            int filteredEntryCount = filterResult.getMatchCount();
+            String filteredEntryOrEntries = (filteredEntryCount == 1) ? "entry" : "entries";
             this.view.getEditWordlistTab().getEntryCountLabel().setText(String.format("%d %s in list, filtered %d %s in view", totalEntryCount, entryOrEntries, filteredEntryCount, filteredEntryOrEntries));
         }
     }
 
-    /**
-     * Calculate the number of filtered rows in the word entry table.
-     *
-     * @return the number of filtered rows
-     */
-    private int getFilteredRowCount()
-    {
-        int filteredRowCount = 0;
-        for (int i = 0; i < this.view.getEditWordlistTab().getWordlistTable().getModel().getRowCount(); i++)
-        {
-            if (this.view.getEditWordlistTab().getWordlistTable().convertRowIndexToView(i) != -1)
-            {
-                filteredRowCount++;
-            }
-        }
-        return filteredRowCount;
-    }
-
     /**
      * If there are words in the model, ask the user for confirmation to
      * overwrite the current list. If the user confirmed, or there are no words
@@ -634,6 +805,10 @@ public class AppFrameController implements IController
      */
     public void tryImportList()
     {
+        if (isReadOnly())
+        {
+            return;
+        }
         if (model.getEntryCount() > 0)
         {
             // had to use showOptionDialog instead of showMessageDialog because it wouldn't let me specify the icon
@@ -660,44 +835,16 @@ public class AppFrameController implements IController
 
         SwingUtilities.invokeLater(() ->
         {
-            try // try to get a valid file from the user
-            {
-                int returnVal = chooser.showOpenDialog(view.getFrame());
-                if (returnVal == JFileChooser.APPROVE_OPTION)
-                {
-                    clearEntries();
-                    model = WordlistModel.loadFromFile(chooser.getSelectedFile());
-                    Logger.getLogger(GUIFrame.class.getName()).log(Level.INFO, "Loaded file with {0} words.", model.getEntryCount());
-                    populateTableFromModel();
-                }
-
-            } catch (IOException | ClassNotFoundException ex) // we didn't get a valid file
+            int returnVal = chooser.showOpenDialog(view.getFrame());
+            if (returnVal == JFileChooser.APPROVE_OPTION)
             {
-                JOptionPane.showMessageDialog(view.getFrame(), "Something went wrong when loading the file.", "Error", JOptionPane.ERROR_MESSAGE);
-                Logger.getLogger(AppFrameController.class.getName()).log(Level.SEVERE, null, ex);
+                clearEntries();
+                startTask(new LoadListWorker(chooser.getSelectedFile()));
             }
         });
 
     }
 
-    /**
-     * Adds all rows from the model to the table model. It is recommended to
-     * invoke <code>clearEntries()</code> before invoking this method, or there
-     * might be inconsistencies with the table model and this controller's
-     * model. Also updates the entry count and clears the filter so that the
-     * user is guaranteed to see the new entries.
-     */
-    public void populateTableFromModel()
-    {
-        model.getAllWordsAsStream().sequential().forEach(word ->
-        {
-            addTableRowFromWord(word);
-            mainController.getQuizWordlistController().addWordEntryToQuizWordlist(word);
-        });
-        updateEntryCount();
-        view.getEditWordlistTab().getFilterField().setText("");
-    }
-
     /**
      * If there are any words in the table, ask the user for confirmation to
      * clear it. If they confirm, invoke the <code>clearEntries()</code> method.
@@ -705,7 +852,7 @@ public class AppFrameController implements IController
      */
     public void tryClearEntries()
     {
-        if (model.getEntryCount() == 0)
+        if (model.getEntryCount() == 0 || isReadOnly())
         {
             return;
         }
@@ -730,9 +877,6 @@ public class AppFrameController implements IController
     public void clearEntries()
     {
         this.model.clear();
-        DefaultTableModel tableModel = (DefaultTableModel) this.view.getEditWordlistTab().getWordlistTable().getModel();
-        tableModel.setRowCount(0);
-        this.updateEntryCount();
     }
 
     /**
@@ -743,65 +887,587 @@ public class AppFrameController implements IController
      * file, a confirmation dialog is shown. If the user cancels the overwriting
      * of the file, or an error occurred during saving, the JFileChooser is
      * shown again until a successful save, or until the user closes the window.
-     * The actual saving of the file is performed in the model's
-     * <code>saveToFile</code> method.
+     * The actual saving of the file is performed in the background by a
+     * <code>SaveListWorker</code>.
      */
     public void tryExportList()
+    {
+        if (isReadOnly())
+        {
+            return;
+        }
+        exportList(SaveReason.USER);
+    }
+
+    /**
+     * Lets the user choose a file as described in <code>tryExportList()</code>
+     * and saves the list to it.
+     *
+     * @param reason why the list is saved
+     */
+    private void exportList(SaveReason reason)
     {
         SwingUtilities.invokeLater(() ->
         {
 
             while (true)
             {
-                try
+                int saveFileResult = chooser.showSaveDialog(view.getFrame());
+                if (saveFileResult == JFileChooser.APPROVE_OPTION)
                 {
-                    int saveFileResult = chooser.showSaveDialog(view.getFrame());
-                    if (saveFileResult == JFileChooser.APPROVE_OPTION)
+                    File fileToBeSaved = chooser.getSelectedFile();
+
+                    // see if we need to append .gtl
+                    if (!chooser.getSelectedFile().getAbsolutePath().endsWith(".gtl"))
                     {
-                        File fileToBeSaved = chooser.getSelectedFile();
+                        fileToBeSaved = new File(chooser.getSelectedFile() + ".gtl");
+                    }
 
-                        // see if we need to append .gtl
-                        if (!chooser.getSelectedFile().getAbsolutePath().endsWith(".gtl"))
+                    // ask for confirmation to overwrite
+                    if (fileToBeSaved.exists())
+                    {
+                        int overWriteResult = JOptionPane.showConfirmDialog(view.getFrame(),
+                                String.format("<html>A file with the name %s exists already.<br/>Do you wish to overwrite it?", fileToBeSaved.getName()),
+                                "Overwrite",
+                                JOptionPane.YES_NO_OPTION,
+                                JOptionPane.WARNING_MESSAGE);
+                        if (overWriteResult == JOptionPane.YES_OPTION)
                         {
-                            fileToBeSaved = new File(chooser.getSelectedFile() + ".gtl");
+                            startTask(new SaveListWorker(fileToBeSaved, reason));
+                            break;
+                        } else
+                        {
+                            chooser.setVisible(true);
                         }
+                    } else // no overwriting
+                    {
+                        startTask(new SaveListWorker(fileToBeSaved, reason));
+                        break;
+                    }
+                } else // user has chosen cancel
+                {
+                    break;
+                }
+            }
+        });
+    }
 
-                        // ask for confirmation to overwrite
-                        if (fileToBeSaved.exists())
+    /**
+     * @return true if a list is shown read-only instead of the model
+     */
+    public boolean isReadOnly()
+    {
+        return readOnlyList != null;
+    }
+
+    /**
+     * Lets the user choose a list file and shows it read-only in the table,
+     * instead of the model. The file is mapped into memory by a
+     * <code>MappedWordlist</code> rather than loaded, so lists of any size can
+     * be browsed. The model is kept as it is, and shown again by
+     * <code>closeReadOnlyList()</code>. Files that have a journal are
+     * refused, since the list would not show the changes in it.
+     *
+     * Editing, loading, saving and clearing are disabled while the list is
+     * shown, and so are filtering and sorting, which work on the model and
+     * would have to go through every entry of the file.
+     */
+    public void tryOpenReadOnlyList()
+    {
+        if (isReadOnly() || currentTask != null)
+        {
+            return;
+        }
+
+        SwingUtilities.invokeLater(() ->
+        {
+            if (chooser.showOpenDialog(view.getFrame()) != JFileChooser.APPROVE_OPTION)
+            {
+                return;
+            }
+            File file = chooser.getSelectedFile();
+            try
+            {
+                showReadOnlyList(MappedWordlist.open(file));
+            } catch (IOException ex)
+            {
+                JOptionPane.showMessageDialog(view.getFrame(),
+                        String.format("<html>%s could not be opened read-only:<br/>%s</html>", file.getName(), ex.getMessage()),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                Logger.getLogger(AppFrameController.class.getName()).log(Level.WARNING, null, ex);
+            }
+        });
+    }
+
+    /**
+     * Shows the given list read-only in the table and disables everything
+     * that would change or filter it.
+     *
+     * @param list the list to show
+     */
+    private void showReadOnlyList(MappedWordlist list)
+    {
+        WordlistPanel panel = view.getEditWordlistTab();
+        JTable table = panel.getWordlistTable();
+        readOnlyList = list;
+        table.clearSelection();
+        panel.getFilterField().setText("");
+        filterResult = null;
+        CollatingRowSorter<?> sorter = (CollatingRowSorter<?>) table.getRowSorter();
+        sorter.setShownRows(null, null);
+        sorter.setSortKeys(null);
+        setReadOnlyControls(true);
+        panel.getWordlistTableModel().setWordlist(list);
+        updateEntryCount();
+    }
+
+    /**
+     * Closes the list that is shown read-only and shows the model in the table
+     * again.
+     */
+    public void closeReadOnlyList()
+    {
+        if (!isReadOnly())
+        {
+            return;
+        }
+        MappedWordlist list = readOnlyList;
+        readOnlyList = null;
+        view.getEditWordlistTab().getWordlistTable().clearSelection();
+        view.getEditWordlistTab().getWordlistTableModel().setWordlist(model);
+        setReadOnlyControls(false);
+        updateEntryCount();
+        refreshFilter();
+        try
+        {
+            list.close();
+        } catch (IOException ex)
+        {
+            Logger.getLogger(AppFrameController.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Disables or enables the controls that change, filter or sort the list,
+     * and switches the Open Read-Only button between opening and closing a
+     * list.
+     *
+     * @param readOnly true if a list is shown read-only
+     */
+    private void setReadOnlyControls(boolean readOnly)
+    {
+        WordlistPanel panel = view.getEditWordlistTab();
+        panel.getNewEntryButton().setEnabled(!readOnly);
+        panel.getFormOfButton().setEnabled(!readOnly);
+        panel.getEditEntryButton().setEnabled(false);
+        panel.getDeleteEntryButton().setEnabled(false);
+        panel.getImportButton().setEnabled(!readOnly);
+        panel.getExportButton().setEnabled(!readOnly);
+        panel.getClearListButton().setEnabled(!readOnly);
+        panel.getFilterField().setEnabled(!readOnly);
+        panel.getExactMatchCheckButton().setEnabled(!readOnly && !panel.getFuzzyCheckBox().isSelected());
+        panel.getAllFormsCheckButton().setEnabled(!readOnly);
+        panel.getFuzzyCheckBox().setEnabled(!readOnly);
+        panel.getMaxTyposSpinner().setEnabled(!readOnly);
+        panel.getIgnoreCaseCheckBox().setEnabled(!readOnly);
+        panel.getIgnoreDiacriticsCheckBox().setEnabled(!readOnly);
+
+        CollatingRowSorter<?> sorter = (CollatingRowSorter<?>) panel.getWordlistTable().getRowSorter();
+        for (int column = 0; column < panel.getWordlistTableModel().getColumnCount(); column++)
+        {
+            sorter.setSortable(column, !readOnly);
+        }
+
+        Action action = panel.getOpenReadOnlyButton().getAction();
+        action.putValue(Action.NAME, readOnly ? "Close Read-Only" : "Open Read-Only...");
+        action.putValue(SHORT_DESCRIPTION, readOnly
+                ? "Closes the list that is shown read-only and shows your own list again."
+                : "Opens a list file for browsing without loading it. The file can't be changed.");
+    }
+
+    /**
+     * Starts the given load or save task in the background. While the task is
+     * running, the progress bar and cancel button in the List panel are shown
+     * and the buttons for loading, saving, clearing and opening a list
+     * read-only are disabled.
+     *
+     * @param task the task to start
+     */
+    private void startTask(SwingWorker<Void, ?> task)
+    {
+        currentTask = task;
+        WordlistPanel panel = view.getEditWordlistTab();
+        panel.getImportButton().setEnabled(false);
+        panel.getExportButton().setEnabled(false);
+        panel.getClearListButton().setEnabled(false);
+        panel.getOpenReadOnlyButton().setEnabled(false);
+        panel.getTaskProgressBar().setMaximum(1000);
+        panel.getTaskProgressBar().setValue(0);
+        panel.getTaskProgressBar().setString("");
+        panel.getTaskProgressBar().setVisible(true);
+        panel.getCancelTaskButton().setVisible(true);
+        task.execute();
+    }
+
+    /**
+     * Updates the progress bar of the running task.
+     *
+     * @param text the text to show in the progress bar
+     * @param done the amount of work done
+     * @param total the total amount of work
+     */
+    private void showTaskProgress(String text, long done, long total)
+    {
+        JProgressBar progressBar = view.getEditWordlistTab().getTaskProgressBar();
+        progressBar.setValue(total > 0 ? (int) (done * progressBar.getMaximum() / total) : 0);
+        progressBar.setString(text);
+    }
+
+    /**
+     * Hides the progress bar and cancel button and enables the buttons that
+     * were disabled by <code>startTask()</code>, unless a list is shown
+     * read-only.
+     */
+    private void finishTask()
+    {
+        currentTask = null;
+        WordlistPanel panel = view.getEditWordlistTab();
+        panel.getImportButton().setEnabled(!isReadOnly());
+        panel.getExportButton().setEnabled(!isReadOnly());
+        panel.getClearListButton().setEnabled(!isReadOnly());
+        panel.getOpenReadOnlyButton().setEnabled(true);
+        panel.getTaskProgressBar().setVisible(false);
+        panel.getCancelTaskButton().setVisible(false);
+    }
+
+    /**
+     * Formats a number of bytes in a human-readable way, e.g.
+     * <code>1.5 MB</code>.
+     *
+     * @param bytes the number of bytes
+     * @return the formatted byte count
+     */
+    private static String formatByteCount(long bytes)
+    {
+        if (bytes < 1024)
+        {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024)
+        {
+            return String.format("%.1f kB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Loads a word list file in a background thread. Entries are published to
+     * the Event Dispatch Thread in chunks as they are decoded, and each chunk
+     * is added to the model and the tables right away, so the user can start
+     * working with the list before it has been loaded completely. If the file
+     * has a journal with unsaved changes, those can refer to any entry, so the
+     * whole file is read and the changes are applied before the entries are
+     * published. If the task is cancelled or fails, the partially loaded list
+     * is cleared again.
+     *
+     * Once the list has been loaded, the model is tied to the journal of the
+     * file, so that the next save only has to append the changes. This is
+     * skipped if the user changed the list while it was loading, since those
+     * changes can't be told apart from the loaded entries. The filter is only
+     * refreshed, and the list only scheduled to be saved, once loading has
+     * finished, rather than after every chunk.
+     */
+    private class LoadListWorker extends SwingWorker<Void, WordEntry>
+    {
+
+        private final File file;
+        private final long fileLength;
+        private final WordlistJournal journal;
+        private volatile long bytesRead;
+        private volatile int entryCount;
+        private volatile boolean journalUsable;
+        /**
+         * Only accessed on the Event Dispatch Thread.
+         */
+        private int entriesAdded;
+        /**
+         * The search index version of the model after the last chunk was
+         * added, which tells if the user has changed the list in between. Only
+         * accessed on the Event Dispatch Thread.
+         */
+        private int expectedModelVersion;
+        private boolean modelChangedByUser;
+        private final long start = WordlistMetrics.start();
+
+        public LoadListWorker(File file)
+        {
+            this.file = file;
+            this.fileLength = file.length();
+            this.journal = new WordlistJournal(file);
+            model.setJournal(null);
+            currentFile = null;
+            expectedModelVersion = model.getSearchIndexVersion();
+            // the filter isn't refreshed while loading, so show every row
+            view.getEditWordlistTab().getFilterField().setText("");
+        }
+
+        @Override
+        protected Void doInBackground() throws IOException, ClassNotFoundException
+        {
+            PerformanceEvents.Span span = PerformanceEvents.begin(PerformanceEvents.Phase.LOAD);
+            try (WordlistReader reader = WordlistReader.open(file))
+            {
+                List<WordlistJournal.Record> changes = journal.load();
+                entryCount = reader.getEntryCount();
+                if (changes.isEmpty())
+                {
+                    while (reader.hasNext() && !isCancelled())
+                    {
+                        WordEntry word = reader.readEntry();
+                        bytesRead = reader.getBytesRead();
+                        publish(word);
+                    }
+                } else
+                {
+                    List<WordEntry> words = new ArrayList<>(entryCount);
+                    while (reader.hasNext() && !isCancelled())
+                    {
+                        words.add(reader.readEntry());
+                        bytesRead = reader.getBytesRead();
+                    }
+                    WordlistJournal.replay(changes, words);
+                    entryCount = words.size();
+                    for (int i = 0; i < words.size() && !isCancelled(); i++)
+                    {
+                        publish(words.get(i));
+                    }
+                }
+                journalUsable = reader.isCurrentVersion();
+                span.end(entryCount, reader.getBytesRead(), file.getName());
+            }
+            return null;
+        }
+
+        @Override
+        protected void process(List<WordEntry> chunk)
+        {
+            if (isCancelled())
+            {
+                return;
+            }
+            if (model.getSearchIndexVersion() != expectedModelVersion)
+            {
+                modelChangedByUser = true;
+            }
+            model.addWordEntries(chunk);
+            expectedModelVersion = model.getSearchIndexVersion();
+            entriesAdded += chunk.size();
+            showTaskProgress(String.format("Loaded %d of %d entries (%s of %s)",
+                    entriesAdded, entryCount, formatByteCount(bytesRead), formatByteCount(fileLength)),
+                    bytesRead, fileLength);
+        }
+
+        @Override
+        protected void done()
+        {
+            finishTask();
+            try
+            {
+                get();
+                currentFile = file;
+                if (!modelChangedByUser && model.getSearchIndexVersion() == expectedModelVersion)
+                {
+                    model.markSaved(model.getGeneration());
+                    if (journalUsable)
+                    {
+                        model.setJournal(journal);
+                    }
+                }
+                autosaveScheduler.listChanged();
+                WordlistMetrics.record(Operation.LOAD, start, entriesAdded);
+                if (WordlistMetrics.isTracing(Operation.LOAD))
+                {
+                    WordlistMetrics.trace(Operation.LOAD, "Loaded {0} words from {1}", entriesAdded, file);
+                }
+            } catch (CancellationException ex)
+            {
+                clearEntries();
+            } catch (InterruptedException | ExecutionException ex) // we didn't get a valid file
+            {
+                clearEntries();
+                JOptionPane.showMessageDialog(view.getFrame(), "Something went wrong when loading the file.", "Error", JOptionPane.ERROR_MESSAGE);
+                Logger.getLogger(AppFrameController.class.getName()).log(Level.SEVERE, null, ex);
+            }
+            view.getEditWordlistTab().getFilterField().setText("");
+            refreshFilter();
+        }
+    }
+
+    /**
+     * Saves the word list to a file in a background thread. A snapshot of the
+     * list is taken on the Event Dispatch Thread when the worker is created,
+     * so the user can keep editing while the file is being written.
+     *
+     * If the list was loaded from or last saved to the same file, only the
+     * changes made since then are appended to the journal of the file, and the
+     * journal is compacted in the background if it has grown large. Otherwise
+     * the whole list is written to a temporary file, which replaces the file
+     * once it is complete, so cancelling or failing never destroys the
+     * previous version of the file. If saving fails, an error is shown and the
+     * user gets to choose a file again, unless the list was being saved
+     * automatically. In both cases the model is detached from the journal, so
+     * that the next save writes the whole list.
+     *
+     * @see WordlistJournal
+     */
+    private class SaveListWorker extends SwingWorker<Void, Integer>
+    {
+
+        private final File file;
+        private final SaveReason reason;
+        private final List<WordEntry> snapshot;
+        private final long generation;
+        private final WordlistJournal journal;
+        /**
+         * The changes to append to the journal, or null if the whole list has
+         * to be written.
+         */
+        private final List<WordlistJournal.Record> changes;
+
+        public SaveListWorker(File file, SaveReason reason)
+        {
+            this.file = file;
+            this.reason = reason;
+            this.snapshot = model.getAllWordsAsStream().collect(Collectors.toList());
+            this.generation = model.getGeneration();
+            WordlistJournal currentJournal = model.getJournal();
+            if (currentJournal != null && currentJournal.getSnapshotFile().equals(file.getAbsoluteFile()))
+            {
+                this.journal = currentJournal;
+                this.changes = model.takeUnsavedChanges();
+            } else
+            {
+                // changes made from now on belong in the journal of the new file
+                this.journal = new WordlistJournal(file);
+                this.changes = null;
+                model.setJournal(journal);
+            }
+        }
+
+        @Override
+        protected Void doInBackground() throws IOException
+        {
+            long start = WordlistMetrics.start();
+            PerformanceEvents.Span span = PerformanceEvents.begin(PerformanceEvents.Phase.SAVE);
+            if (changes != null && journal.append(changes))
+            {
+                if (journal.needsCompaction())
+                {
+                    journal.compactInBackground(snapshot);
+                }
+                WordlistMetrics.record(Operation.SAVE, start, changes.size());
+                span.end(changes.size(), journal.getJournalFile().length(), journal.getJournalFile().getName());
+                if (WordlistMetrics.isTracing(Operation.SAVE))
+                {
+                    WordlistMetrics.trace(Operation.SAVE, "Appended {0} changes to the journal of {1}", changes.size(), file);
+                }
+                return null;
+            }
+
+            // locking the journal keeps a compaction from writing the file at the same time
+            synchronized (journal)
+            {
+                try (AtomicFileOutputStream out = new AtomicFileOutputStream(file))
+                {
+                    WordlistWriter writer = new WordlistWriter(out, snapshot.size(), WordlistWriter.getFormNames(snapshot));
+                    try
+                    {
+                        for (int i = 0; i < snapshot.size() && !isCancelled(); i++)
                         {
-                            int overWriteResult = JOptionPane.showConfirmDialog(view.getFrame(),
-                                    String.format("<html>A file with the name %s exists already.<br/>Do you wish to overwrite it?", fileToBeSaved.getName()),
-                                    "Overwrite",
-                                    JOptionPane.YES_NO_OPTION,
-                                    JOptionPane.WARNING_MESSAGE);
-                            if (overWriteResult == JOptionPane.YES_OPTION)
-                            {
-                                model.saveToFile(fileToBeSaved);
-                                break;
-                            } else
+                            writer.writeEntry(snapshot.get(i));
+                            if (i % 1024 == 0)
                             {
-                                chooser.setVisible(true);
+                                publish(i);
                             }
-                        } else // no overwriting
+                        }
+                        if (isCancelled())
                         {
-                            model.saveToFile(fileToBeSaved);
-                            break;
+                            return null;
                         }
-                    } else // user has chosen cancel
+                        writer.finish();
+                    } finally
                     {
-                        break;
+                        writer.discard();
                     }
-                } catch (IOException ex)
+                    out.commit();
+                }
+                journal.snapshotWritten();
+            }
+            WordlistMetrics.record(Operation.SAVE, start, snapshot.size());
+            span.end(snapshot.size(), file.length(), file.getName());
+            if (WordlistMetrics.isTracing(Operation.SAVE))
+            {
+                WordlistMetrics.trace(Operation.SAVE, "Wrote {0} words to {1}", snapshot.size(), file);
+            }
+            return null;
+        }
+
+        @Override
+        protected void process(List<Integer> chunks)
+        {
+            int entriesWritten = chunks.get(chunks.size() - 1);
+            showTaskProgress(String.format("Saved %d of %d entries", entriesWritten, snapshot.size()),
+                    entriesWritten, snapshot.size());
+        }
+
+        @Override
+        protected void done()
+        {
+            finishTask();
+            try
+            {
+                get();
+                model.markSaved(generation);
+                currentFile = file;
+                if (reason == SaveReason.EXIT)
                 {
+                    System.exit(0);
+                }
+                // the list may have been changed while it was being saved
+                autosaveScheduler.listChanged();
+            } catch (CancellationException ex)
+            {
+                // the file is only replaced once it has been written completely
+                detachJournal();
+            } catch (InterruptedException | ExecutionException ex)
+            {
+                detachJournal();
+                Logger.getLogger(AppFrameController.class.getName()).log(Level.SEVERE, null, ex);
+                if (reason == SaveReason.AUTOSAVE)
+                {
+                    // stop saving automatically until the user has saved the list again
+                    currentFile = null;
                     JOptionPane.showMessageDialog(view.getFrame(),
-                            "Couldn't save the file. The destination folder might be full or you don't have write access.",
+                            String.format("<html>Couldn't save the list to %s automatically. The folder might be full or you don't have write access.<br/>Please save the list to another file.", file.getName()),
                             "Error",
                             JOptionPane.ERROR_MESSAGE);
-                    Logger.getLogger(AppFrameController.class.getName()).log(Level.SEVERE, null, ex);
+                    return;
                 }
+                JOptionPane.showMessageDialog(view.getFrame(),
+                        "Couldn't save the file. The destination folder might be full or you don't have write access.",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                exportList(reason);
+            }
+        }
 
+        private void detachJournal()
+        {
+            if (model.getJournal() == journal)
+            {
+                model.setJournal(null);
             }
-        });
+        }
     }
 
     /**
@@ -895,6 +1561,28 @@ public class AppFrameController implements IController
         }
     }
 
+    /**
+     * When the FormOfAction is invoked, invoke the <code>lookUpForm</code>
+     * method.
+     */
+    private class FormOfAction extends AbstractAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        public FormOfAction()
+        {
+            super("Form Of...");
+            putValue(SHORT_DESCRIPTION, "Finds the words in the list that a word form, e.g. \"bilarna\", belongs to.");
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e)
+        {
+            lookUpForm();
+        }
+    }
+
     /**
      * When the ClearEntryAction is invoked, invoke the
      * <code>tryClearEntries</code> method.
@@ -955,6 +1643,61 @@ public class AppFrameController implements IController
         }
     }
 
+    /**
+     * When the OpenReadOnlyAction is invoked, invoke the
+     * <code>tryOpenReadOnlyList</code> method, or the
+     * <code>closeReadOnlyList</code> method if a list is already shown
+     * read-only.
+     */
+    private class OpenReadOnlyAction extends AbstractAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        public OpenReadOnlyAction()
+        {
+            super("Open Read-Only...");
+            putValue(SHORT_DESCRIPTION, "Opens a list file for browsing without loading it. The file can't be changed.");
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e)
+        {
+            if (isReadOnly())
+            {
+                closeReadOnlyList();
+            } else
+            {
+                tryOpenReadOnlyList();
+            }
+        }
+    }
+
+    /**
+     * When the CancelTaskAction is invoked, cancel the running load or save
+     * task, if any.
+     */
+    private class CancelTaskAction extends AbstractAction
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        public CancelTaskAction()
+        {
+            super("Cancel");
+            putValue(SHORT_DESCRIPTION, "Stops loading or saving the list.");
+        }
+
+        @Override
+        public void actionPerformed(ActionEvent e)
+        {
+            if (currentTask != null)
+            {
+                currentTask.cancel(true);
+            }
+        }
+    }
+
     /**
      * When the PrintListAction is invoked, show a print dialog for the user.
      * The width of the table will be adjusted to fit the width of the paper.
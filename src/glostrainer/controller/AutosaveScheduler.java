@@ -0,0 +1,92 @@
+package glostrainer.controller;
+
+import glostrainer.model.WordlistModel;
+import javax.swing.Timer;
+
+/**
+ * Decides when a word list with unsaved changes should be saved automatically.
+ * The list is saved once it has not been changed for <code>QUIET_DELAY</code>
+ * milliseconds, or at the latest <code>MAX_DELAY</code> milliseconds after the
+ * first unsaved change, so that a burst of edits results in a single save, and
+ * a long stream of edits still gets saved now and then.
+ *
+ * The scheduler does not save anything itself. It runs the save action given
+ * to the constructor, which is expected to start a save in the background.
+ * All methods must be invoked on the Event Dispatch Thread, and the save
+ * action is run on it as well.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class AutosaveScheduler
+{
+
+    /**
+     * How many milliseconds the list has to go without changes before it is
+     * saved.
+     */
+    public static final int QUIET_DELAY = 3000;
+
+    /**
+     * The longest time in milliseconds that a change stays unsaved while the
+     * list keeps being changed.
+     */
+    public static final int MAX_DELAY = 30000;
+
+    private final WordlistModel model;
+    private final Runnable saveAction;
+    private final Timer quietTimer;
+    private final Timer maxDelayTimer;
+
+    /**
+     * Creates a new scheduler for the given word list.
+     *
+     * @param model the word list to watch
+     * @param saveAction starts saving the list
+     */
+    public AutosaveScheduler(WordlistModel model, Runnable saveAction)
+    {
+        this.model = model;
+        this.saveAction = saveAction;
+        quietTimer = new Timer(QUIET_DELAY, (e) -> save());
+        quietTimer.setRepeats(false);
+        maxDelayTimer = new Timer(MAX_DELAY, (e) -> save());
+        maxDelayTimer.setRepeats(false);
+    }
+
+    /**
+     * Tells the scheduler that the list has been changed. Should also be
+     * invoked to try again later if the list could not be saved when the save
+     * action ran, e.g. because another file operation was in progress.
+     */
+    public void listChanged()
+    {
+        if (!model.isDirty())
+        {
+            return;
+        }
+        quietTimer.restart();
+        if (!maxDelayTimer.isRunning())
+        {
+            maxDelayTimer.start();
+        }
+    }
+
+    /**
+     * Cancels a scheduled save, e.g. because the list has been saved in
+     * another way.
+     */
+    public void cancel()
+    {
+        quietTimer.stop();
+        maxDelayTimer.stop();
+    }
+
+    private void save()
+    {
+        cancel();
+        if (model.isDirty())
+        {
+            saveAction.run();
+        }
+    }
+}
@@ -39,7 +39,8 @@ public class MainController
         this.newOrEditEntryFormController = new NewOrEditEntryFormController(
                 this,
                 new NewOrEditEntryModel(),
-                new NewOrEditEntryForm(gui.getFrame())
+                new NewOrEditEntryForm(gui.getFrame()),
+                wlModel
         );
 
     }
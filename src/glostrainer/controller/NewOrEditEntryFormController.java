@@ -4,14 +4,26 @@ import glostrainer.view.GUIHelpers;
 import glostrainer.model.NewOrEditEntryModel;
 import glostrainer.model.WordEntry;
 import glostrainer.model.WordClass;
+import glostrainer.model.WordlistModel;
 import glostrainer.view.NewOrEditEntryForm;
 import java.awt.event.ActionEvent;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
 import java.awt.event.ItemEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.stream.Collectors;
 import javax.swing.AbstractAction;
 import static javax.swing.Action.SHORT_DESCRIPTION;
 import javax.swing.JDialog;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 // TODO: use SwingWorkers to safely open and close dialogs
 /**
@@ -26,6 +38,13 @@ import javax.swing.SwingUtilities;
  * The model here represents the entered data from the GUI's JTextFiedls (and
  * JComboBox for the word class etc).
  *
+ * While the user types the dictionary form, the words of the open word list
+ * that it could be completed to are suggested in a dropdown under the field,
+ * and a warning is shown if a word with the same dictionary form is already
+ * in the list. Both are looked up in the word list's index of dictionary
+ * forms, so updating them on every keystroke takes the same short time
+ * however long the list is.
+ *
  * @author Robert Sebescen (pgrobban at gmail dot com)
  */
 public class NewOrEditEntryFormController extends AbstractController
@@ -48,19 +67,39 @@ public class NewOrEditEntryFormController extends AbstractController
      */
     protected boolean wordEntryWasSaved;
 
+    /**
+     * The maximum number of words to suggest in the dropdown under the
+     * dictionary form field.
+     */
+    private static final int MAX_COMPLETIONS = 8;
+
+    /**
+     * The word list that new words are added to, which is searched for
+     * completions and duplicates of the entered dictionary form.
+     */
+    private final WordlistModel wordlist;
+    /**
+     * The word that is being edited, which is not a duplicate of itself, or
+     * null if the form is open for a new word.
+     */
+    private WordEntry wordBeingEdited;
+
     /**
      * Creates a new NewOrEditFrameController with the given model and view.
      *
      * @param mainController
      * @param model
      * @param view
+     * @param wordlist the word list to look up completions and duplicates of
+     * the entered dictionary form in
      */
     public NewOrEditEntryFormController(MainController mainController,
-            NewOrEditEntryModel model, NewOrEditEntryForm view)
+            NewOrEditEntryModel model, NewOrEditEntryForm view, WordlistModel wordlist)
     {
         super(mainController, model, view);
         this.model = model;
         this.view = view;
+        this.wordlist = wordlist;
         SwingUtilities.invokeLater(() ->
         {
             initComponents();
@@ -85,6 +124,138 @@ public class NewOrEditEntryFormController extends AbstractController
         });
         // patch the JTextArea so the Tab button can be used to change focus
         GUIHelpers.patchFocus(view.getUserNotesTextArea());
+        setupDictionaryFormListeners();
+    }
+
+    /**
+     * Updates the suggestions and the duplicate warning whenever the
+     * dictionary form changes, and lets the user pick a suggestion with the
+     * arrow keys and Enter, or with the mouse.
+     */
+    private void setupDictionaryFormListeners()
+    {
+        view.getDictionaryFormField().getDocument().addDocumentListener(
+                new DocumentListener()
+                {
+                    @Override
+                    public void changedUpdate(DocumentEvent e)
+                    {
+                        updateDictionaryFormHints();
+                    }
+
+                    @Override
+                    public void insertUpdate(DocumentEvent e)
+                    {
+                        updateDictionaryFormHints();
+                    }
+
+                    @Override
+                    public void removeUpdate(DocumentEvent e)
+                    {
+                        updateDictionaryFormHints();
+                    }
+                });
+        view.getDictionaryFormField().addKeyListener(new KeyAdapter()
+        {
+
+            @Override
+            public void keyPressed(KeyEvent e)
+            {
+                if (!view.getCompletionPopup().isVisible())
+                {
+                    return;
+                }
+                JList<WordEntry> list = view.getCompletionList();
+                switch (e.getKeyCode())
+                {
+                    case KeyEvent.VK_DOWN:
+                        list.setSelectedIndex(Math.min(list.getSelectedIndex() + 1, list.getModel().getSize() - 1));
+                        list.ensureIndexIsVisible(list.getSelectedIndex());
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        list.setSelectedIndex(Math.max(list.getSelectedIndex() - 1, 0));
+                        list.ensureIndexIsVisible(list.getSelectedIndex());
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if (list.getSelectedValue() != null)
+                        {
+                            acceptCompletion(list.getSelectedValue());
+                            e.consume();
+                        }
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        view.hideCompletions();
+                        e.consume();
+                        break;
+                }
+            }
+        });
+        view.getDictionaryFormField().addFocusListener(new FocusAdapter()
+        {
+
+            @Override
+            public void focusLost(FocusEvent e)
+            {
+                view.hideCompletions();
+            }
+        });
+        view.getCompletionList().addMouseListener(new MouseAdapter()
+        {
+
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                int index = view.getCompletionList().locationToIndex(e.getPoint());
+                if (index >= 0)
+                {
+                    acceptCompletion(view.getCompletionList().getModel().getElementAt(index));
+                }
+            }
+        });
+    }
+
+    /**
+     * Suggests the words that the entered dictionary form could be completed
+     * to, and warns the user if a word with the entered dictionary form is
+     * already in the list. The word being edited is neither suggested nor
+     * counted as a duplicate.
+     */
+    private void updateDictionaryFormHints()
+    {
+        String enteredValue = view.getDictionaryFormField().getText().trim();
+
+        List<WordEntry> completions = wordlist.findDictionaryFormCompletions(enteredValue, MAX_COMPLETIONS + 1);
+        completions.remove(wordBeingEdited);
+        view.showCompletions(completions.subList(0, Math.min(completions.size(), MAX_COMPLETIONS)));
+
+        List<WordEntry> duplicates = wordlist.findWordsWithDictionaryForm(enteredValue);
+        duplicates.remove(wordBeingEdited);
+        if (duplicates.isEmpty())
+        {
+            view.setDictionaryFormWarning("");
+        } else
+        {
+            view.setDictionaryFormWarning("<html>Already in the list: " + duplicates.stream()
+                    .limit(3)
+                    .map((w) -> String.format("<strong>%s</strong> (%s)", w.getSwedishDictionaryForm(), w.getDefinition()))
+                    .collect(Collectors.joining(", "))
+                    + (duplicates.size() > 3 ? " and " + (duplicates.size() - 3) + " more" : "")
+                    + "</html>");
+        }
+    }
+
+    /**
+     * Replaces the entered dictionary form with the one of the given
+     * suggested word, and hides the suggestions.
+     *
+     * @param completion the suggested word that the user picked
+     */
+    private void acceptCompletion(WordEntry completion)
+    {
+        view.getDictionaryFormField().setText(completion.getSwedishDictionaryForm());
+        view.hideCompletions();
     }
 
     /**
@@ -93,6 +264,7 @@ public class NewOrEditEntryFormController extends AbstractController
     public void openNewEntryForm()
     {
         this.wordEntryWasSaved = false;
+        this.wordBeingEdited = null;
 
         JDialog form = view.getFrame();
         form.setTitle("New Entry");
@@ -115,6 +287,7 @@ public class NewOrEditEntryFormController extends AbstractController
     {
         SwingUtilities.invokeLater(() ->
         {
+            view.hideCompletions();
             view.getFrame().setVisible(false);
         });
     }
@@ -131,6 +304,7 @@ public class NewOrEditEntryFormController extends AbstractController
     {
         //System.out.println("Opening Edit Entry Frame with " + wordToEdit);
         this.wordEntryWasSaved = false;
+        this.wordBeingEdited = wordToEdit;
 
         JDialog form = view.getFrame();
         form.setTitle("Edit Entry");
@@ -2,8 +2,8 @@ package glostrainer.controller;
 
 import glostrainer.model.IModel;
 import glostrainer.model.QuizWordlistModel;
-import glostrainer.model.WordEntry;
 import glostrainer.view.GUIHelpers;
+import glostrainer.view.QuizTableModel;
 import glostrainer.view.QuizWordlistPanel;
 import java.awt.Component;
 import java.awt.event.ActionEvent;
@@ -11,7 +11,6 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import javax.swing.AbstractAction;
@@ -22,12 +21,10 @@ import javax.swing.JTable;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.event.TableModelEvent;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
-import javax.swing.table.TableModel;
 
 /**
  *
@@ -56,40 +53,9 @@ public class QuizWordlistController extends AbstractController
 
     private void setupQuizWordlistTable()
     {
-        //int numberOfColumns = 4 + getMaximumOptionalFormsCount();
-        int numberOfColumns = 21;
-        String[] columns = new String[numberOfColumns];
-        columns[2] = "Dict. form";
-        columns[4] = "Definition";
-        Arrays.fill(columns, 6, columns.length, "Opt. form");
-
         JTable table = this.view.getWordlistTable();
-
-        table.setModel(new DefaultTableModel(
-                new Object[0][0],
-                columns
-        )
-        {
-            @Override
-            public Class getColumnClass(int columnIndex)
-            {
-                if (columnIndex == 0)
-                {
-                    return boolean.class;
-                }
-                return columnIndex % 2 == 1 ? Boolean.class : String.class;
-            }
-
-            @Override
-            public boolean isCellEditable(int rowIndex, int columnIndex)
-            {
-                if (columnIndex == 0)
-                {
-                    return true;
-                }
-                return columnIndex % 2 == 1;
-            }
-        });
+        table.setModel(new QuizTableModel(model.getWordlist()));
+        int numberOfColumns = table.getColumnCount();
 
         // first column
         TableColumn tc = table.getColumnModel().getColumn(0);
@@ -123,62 +89,18 @@ public class QuizWordlistController extends AbstractController
 
     private void setupTableRowSelect()
     {
-        JTable table = view.getWordlistTable();
-        TableModel tableModel = table.getModel();
-        tableModel.addTableModelListener((TableModelEvent e) ->
+        getTableModel().addTableModelListener((TableModelEvent e) ->
         {
             updateSelectedWordsCountLabel();
-
-            int row = e.getFirstRow();
-            int column = e.getColumn();
-            if (column == 0)
-            {
-                for (int i = 1; i < tableModel.getColumnCount(); i += 2)
-                {
-                    tableModel.setValueAt(tableModel.getValueAt(row, 0), row, i);
-                }
-            }
         });
     }
 
-    public void addWordEntryToQuizWordlist(WordEntry word)
-    {
-        JTable table = this.view.getWordlistTable();
-        DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
-        List<Object> rowList = new ArrayList<>();
-        rowList.add(true);
-        rowList.add(true);
-        rowList.add(word.getSwedishDictionaryForm());
-        rowList.add(true);
-        rowList.add(word.getDefinition());
-        word.getOptionalForms().values().stream().forEach(of ->
-        {
-            rowList.add(true);
-            rowList.add(of);
-        });
-
-        tableModel.addRow(rowList.toArray());
-        updateSelectedWordsCountLabel();
-    }
-
-    public void editWordEntryInQuizWordlist(int modelRowIndex, WordEntry word)
+    /**
+     * @return the model of the quiz table
+     */
+    private QuizTableModel getTableModel()
     {
-        JTable table = this.view.getWordlistTable();
-        DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
-        List<Object> rowList = new ArrayList<>();
-        tableModel.setValueAt(true, modelRowIndex, 0);
-        tableModel.setValueAt(true, modelRowIndex, 1);
-        tableModel.setValueAt(word.getDefinition(), modelRowIndex, 1);
-        tableModel.setValueAt(true, modelRowIndex, 3);
-        tableModel.setValueAt(word.getDefinition(), modelRowIndex, 3);
-        int nextIndex = 5;
-        for (int i = 0; i < word.getOptionalForms().size(); i++)
-        {
-            tableModel.setValueAt(true, modelRowIndex, nextIndex++);
-            tableModel.setValueAt(word.getOptionalFormsValuesAsArray()[i], modelRowIndex, nextIndex++);
-        }
-        updateSelectedWordsCountLabel();
-
+        return (QuizTableModel) view.getWordlistTable().getModel();
     }
 
     /*
@@ -212,30 +134,13 @@ public class QuizWordlistController extends AbstractController
         return model;
     }
 
-    public void deleteWordEntryAtIndex(int indexInModelToRemove)
-    {
-        DefaultTableModel tableModel = (DefaultTableModel) view.getWordlistTable().getModel();
-        tableModel.removeRow(indexInModelToRemove);
-        updateSelectedWordsCountLabel();
-    }
-
+    /**
+     * Shows the number of selected word forms, which the table model keeps
+     * track of as the checkboxes are toggled.
+     */
     public void updateSelectedWordsCountLabel()
     {
-        int selectedCount = 0;
-        DefaultTableModel tableModel = (DefaultTableModel) view.getWordlistTable().getModel();
-        for (int row = 0; row < tableModel.getRowCount(); row++)
-        {
-            for (int col = 1; col < tableModel.getColumnCount(); col += 2)
-            {
-                boolean checkboxChecked = tableModel.getValueAt(row, col) != null && (boolean) tableModel.getValueAt(row, col);
-                if (checkboxChecked && tableModel.getValueAt(row, col+1) != null)
-                {
-                    selectedCount++;
-                }
-            }
-        }
-
-        view.getSelectedWordsCountLabel().setText(selectedCount + " word forms selected");
+        view.getSelectedWordsCountLabel().setText(getTableModel().getSelectedCount() + " word forms selected");
     }
 
     /**
@@ -261,10 +166,11 @@ public class QuizWordlistController extends AbstractController
                 return;
             }
             boolean checked = e.getStateChange() == ItemEvent.SELECTED;
-            for (int row = 0; row < table.getRowCount(); row++)
+            if (table.isEditing())
             {
-                table.setValueAt(checked, row, column);
+                table.getCellEditor().stopCellEditing();
             }
+            getTableModel().setColumnSelected(column, checked);
         }
 
     }
@@ -365,27 +271,7 @@ public class QuizWordlistController extends AbstractController
 
     private String[] getSelectedWordFormsAsArray()
     {
-        List<String> resultList = new ArrayList<>();
-        JTable table = view.getWordlistTable();
-        DefaultTableModel tableModel = (DefaultTableModel) table.getModel();
-        for (int row = 0; row < tableModel.getRowCount(); row++)
-        {
-            for (int column = 1; column < tableModel.getColumnCount(); column += 2)
-            {
-                Object checkboxOrNull = tableModel.getValueAt(row, column);
-                if (checkboxOrNull == null)
-                {
-                    continue;
-                }
-                boolean checkboxChecked = (boolean) checkboxOrNull;
-
-                String wordToAdd = (String) tableModel.getValueAt(row, column + 1);
-                if (checkboxChecked && wordToAdd != null && !"".equals(wordToAdd))
-                {
-                    resultList.add(wordToAdd);
-                }
-            }
-        }
+        List<String> resultList = getTableModel().getSelectedWordForms();
         String[] resultArray = resultList.toArray(new String[resultList.size()]);
         System.out.println("Starting quiz with " + Arrays.toString(resultArray));
         return resultArray;
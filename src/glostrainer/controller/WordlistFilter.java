@@ -0,0 +1,554 @@
+package glostrainer.controller;
+
+import glostrainer.model.PerformanceEvents;
+import glostrainer.model.WordEntry;
+import glostrainer.model.WordlistModel;
+import glostrainer.model.WordlistQuery;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Runs word list filter queries on a background thread, so that typing in the
+ * filter text field never has to wait for the whole list to be searched.
+ *
+ * Queries are submitted on the Event Dispatch Thread. A query is only started
+ * once no new query has been submitted for <code>DEBOUNCE_DELAY</code>
+ * milliseconds, and starting a query cancels the one that is still running,
+ * since its result would be thrown away anyway. The query works on a snapshot
+ * of the list taken when it starts, and finds the matching rows with the help
+ * of the model's search index. The finished result is handed to the result
+ * handler on the Event Dispatch Thread, unless the list has changed in the
+ * meantime, in which case the query is run again.
+ *
+ * Empty queries match every row and are answered right away, so clearing the
+ * filter text field shows the whole list without delay.
+ *
+ * Exact match and fuzzy queries are answered by the form index of the model,
+ * so only the few words it returns are tested. The result of a fuzzy query
+ * also gives the edit distance of each matching row, and lists the rows
+ * ranked by it, so that the table can show them in that order without
+ * sorting them.
+ *
+ * The results of the latest queries are cached until the list changes. A
+ * query that has been run before, e.g. after a backspace, is answered from
+ * the cache right away. A query that refines a cached one (see
+ * <code>WordlistQuery.refines()</code>), e.g. after another character has
+ * been typed, only tests the rows that matched the cached query, so typing a
+ * word costs about as much as a single pass over the list.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class WordlistFilter
+{
+
+    /**
+     * The number of milliseconds to wait after the last submitted query before
+     * it is started.
+     */
+    public static final int DEBOUNCE_DELAY = 150;
+
+    /**
+     * How many rows are checked between checks for cancellation.
+     */
+    private static final int CANCELLATION_CHECK_INTERVAL = 4096;
+
+    /**
+     * The number of results to cache.
+     */
+    private static final int RESULT_CACHE_SIZE = 32;
+
+    private final WordlistModel model;
+    private final Consumer<Result> resultHandler;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor((Runnable r) ->
+    {
+        Thread thread = new Thread(r, "Word list filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer debounceTimer;
+
+    /**
+     * The query that will be started when the debounce timer fires.
+     */
+    private WordlistQuery pendingQuery;
+
+    /**
+     * The query that is running in the background, or null if there is none.
+     */
+    private Future<?> runningQuery;
+
+    /**
+     * Incremented every time a query is started, so that results of queries
+     * that have been superseded are not published.
+     */
+    private int generation;
+
+    /**
+     * The results of the latest queries, in access order. Only accessed on the
+     * Event Dispatch Thread.
+     */
+    private final Map<WordlistQuery, Result> resultCache = new LinkedHashMap<WordlistQuery, Result>(RESULT_CACHE_SIZE, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<WordlistQuery, Result> eldest)
+        {
+            return size() > RESULT_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * The search index version of the list that the cached results were found
+     * in.
+     */
+    private int resultCacheVersion;
+
+    /**
+     * The words of the list at <code>snapshotVersion</code>, or null.
+     */
+    private Snapshot snapshot;
+    private int snapshotVersion;
+
+    /**
+     * Creates a new filter for the given word list.
+     *
+     * @param model the word list to search
+     * @param resultHandler receives the result of each finished query on the
+     * Event Dispatch Thread
+     */
+    public WordlistFilter(WordlistModel model, Consumer<Result> resultHandler)
+    {
+        this.model = model;
+        this.resultHandler = resultHandler;
+        debounceTimer = new Timer(DEBOUNCE_DELAY, (e) -> startQuery(pendingQuery));
+        debounceTimer.setRepeats(false);
+    }
+
+    /**
+     * Submits a query that is started once no other query has been submitted
+     * for <code>DEBOUNCE_DELAY</code> milliseconds. Empty queries are answered
+     * right away. Must be invoked on the Event Dispatch Thread.
+     *
+     * @param query the query to run
+     */
+    public void submit(WordlistQuery query)
+    {
+        if (query.isEmpty())
+        {
+            submitNow(query);
+            return;
+        }
+        pendingQuery = query;
+        debounceTimer.restart();
+    }
+
+    /**
+     * Starts the given query right away, cancelling any submitted or running
+     * query. Must be invoked on the Event Dispatch Thread.
+     *
+     * @param query the query to run
+     */
+    public void submitNow(WordlistQuery query)
+    {
+        debounceTimer.stop();
+        startQuery(query);
+    }
+
+    /**
+     * Runs the given query on the calling thread and returns its result,
+     * without involving the result handler or any submitted query.
+     *
+     * @param query the query to run
+     * @return the rows that match the query
+     */
+    public Result query(WordlistQuery query)
+    {
+        return runQuery(query, getSnapshot(), null);
+    }
+
+    /**
+     * Runs the given query on the calling thread like <code>query()</code>,
+     * but if it refines the query of the given result, only tests the rows
+     * that matched that query. The list must not have changed since the given
+     * result was found.
+     *
+     * @param query the query to run
+     * @param previous the result of an earlier query, or null
+     * @return the rows that match the query
+     */
+    public Result refine(WordlistQuery query, Result previous)
+    {
+        Snapshot snapshot = getSnapshot();
+        boolean usable = previous != null && query.refines(previous.getQuery()) && previous.getEntryCount() == snapshot.words.length;
+        return runQuery(query, snapshot, usable ? previous : null);
+    }
+
+    private void startQuery(WordlistQuery query)
+    {
+        pendingQuery = null;
+        generation++;
+        if (runningQuery != null)
+        {
+            runningQuery.cancel(true);
+            runningQuery = null;
+        }
+        if (query.isEmpty())
+        {
+            int entryCount = model.getEntryCount();
+            resultHandler.accept(new Result(query, new BitSet(), entryCount, entryCount, null, null));
+            return;
+        }
+
+        int version = model.getSearchIndexVersion();
+        if (version != resultCacheVersion)
+        {
+            resultCache.clear();
+            resultCacheVersion = version;
+        }
+        Result cached = resultCache.get(query);
+        if (cached != null)
+        {
+            resultHandler.accept(cached);
+            return;
+        }
+        Result base = findRefinableResult(query);
+
+        int queryGeneration = generation;
+        Snapshot snapshot = getSnapshot();
+        runningQuery = executor.submit(() ->
+        {
+            try
+            {
+                Result result = runQuery(query, snapshot, base);
+                SwingUtilities.invokeLater(() -> publish(result, queryGeneration, version));
+            } catch (CancellationException ex)
+            {
+                // superseded by a newer query
+            } catch (RuntimeException ex)
+            {
+                Logger.getLogger(WordlistFilter.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        });
+    }
+
+    /**
+     * Returns the words of the list as an array, which is shared by the
+     * queries until the list changes, so that typing a query does not copy the
+     * list for every character.
+     *
+     * @return the words of the list, which must not be modified
+     */
+    private synchronized Snapshot getSnapshot()
+    {
+        int version = model.getSearchIndexVersion();
+        if (snapshot == null || version != snapshotVersion)
+        {
+            snapshot = new Snapshot(model.getAllWordsAsStream().toArray(WordEntry[]::new));
+            snapshotVersion = version;
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return the cached result with the fewest matches that the given query
+     * refines, or null if there is none
+     */
+    private Result findRefinableResult(WordlistQuery query)
+    {
+        Result best = null;
+        for (Result result : resultCache.values())
+        {
+            if (query.refines(result.getQuery()) && (best == null || result.getMatchCount() < best.getMatchCount()))
+            {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the rows of the snapshot that match the query. If a base result is
+     * given, which the query refines, only the rows that matched it are
+     * tested. If the search index narrows the query down to fewer words than
+     * that, e.g. because it is an exact match query, only those words are
+     * tested. Runs in the background.
+     *
+     * @throws CancellationException if the query was cancelled
+     */
+    private Result runQuery(WordlistQuery query, Snapshot snapshot, Result base)
+    {
+        PerformanceEvents.Span span = PerformanceEvents.begin(PerformanceEvents.Phase.FILTER);
+        Set<WordEntry> candidates;
+        if (query.isFuzzy())
+        {
+            candidates = model.findFuzzyMatches(query.getText(), query.getMaxEditDistance(), query.isIncludeOptionalForms());
+        } else if (query.isExactMatch())
+        {
+            candidates = model.findExactMatches(query.getText(), query.isIncludeOptionalForms());
+        } else
+        {
+            candidates = model.findSearchCandidates(query.getText(), query.isIncludeOptionalForms());
+        }
+        WordEntry[] words = snapshot.words;
+        BitSet matches = new BitSet(words.length);
+        int matchCount = 0;
+        int rowsTested = 0;
+        int rowsToTest = (base != null) ? base.getMatchCount() : words.length;
+        if (candidates != null && candidates.size() < rowsToTest)
+        {
+            for (WordEntry word : candidates)
+            {
+                int row = snapshot.getRow(word);
+                rowsTested++;
+                if (row >= 0 && query.matches(word))
+                {
+                    matches.set(row);
+                    matchCount++;
+                }
+            }
+        } else
+        {
+            for (int row = nextRowToTest(base, 0, words.length); row >= 0; row = nextRowToTest(base, row + 1, words.length))
+            {
+                if (rowsTested++ % CANCELLATION_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted())
+                {
+                    throw new CancellationException();
+                }
+                WordEntry word = words[row];
+                if ((candidates == null || candidates.contains(word)) && query.matches(word))
+                {
+                    matches.set(row);
+                    matchCount++;
+                }
+            }
+        }
+        byte[] editDistances = null;
+        int[] rows = matches.stream().toArray();
+        if (query.isFuzzy())
+        {
+            editDistances = new byte[words.length];
+            for (int row : rows)
+            {
+                editDistances[row] = (byte) query.getEditDistance(words[row]);
+            }
+            rows = rankRows(rows, editDistances, query.getMaxEditDistance());
+        }
+        span.end(rowsTested, 0, String.format("%d matches for \"%s\"", matchCount, query.getText()));
+        return new Result(query, matches, matchCount, words.length, rows, editDistances);
+    }
+
+    /**
+     * Orders the given rows by their edit distance with a counting sort,
+     * keeping the list order of rows with the same edit distance, so that the
+     * table can show them without sorting them.
+     */
+    private static int[] rankRows(int[] rows, byte[] editDistances, int maxEditDistance)
+    {
+        int[] starts = new int[maxEditDistance + 2];
+        for (int row : rows)
+        {
+            starts[editDistances[row] + 1]++;
+        }
+        for (int distance = 1; distance < starts.length; distance++)
+        {
+            starts[distance] += starts[distance - 1];
+        }
+        int[] ranked = new int[rows.length];
+        for (int row : rows)
+        {
+            ranked[starts[editDistances[row]]++] = row;
+        }
+        return ranked;
+    }
+
+    /**
+     * @return the first row from the given one that has to be tested, or -1
+     * if there is none
+     */
+    private static int nextRowToTest(Result base, int row, int rowCount)
+    {
+        if (base != null)
+        {
+            return base.matches.nextSetBit(row);
+        }
+        return (row < rowCount) ? row : -1;
+    }
+
+    /**
+     * Hands a finished result to the result handler, unless a newer query has
+     * been started. If the list has changed since the query started, the row
+     * numbers of the result may be wrong, so the query is run again instead.
+     */
+    private void publish(Result result, int queryGeneration, int version)
+    {
+        if (queryGeneration != generation)
+        {
+            return;
+        }
+        runningQuery = null;
+        if (version != model.getSearchIndexVersion())
+        {
+            startQuery(result.getQuery());
+            return;
+        }
+        resultCache.put(result.getQuery(), result);
+        resultHandler.accept(result);
+    }
+
+    /**
+     * The words of the list at some point, and the row of each word by its
+     * identifier, so that the rows of the few candidates that the search index
+     * finds can be looked up directly.
+     */
+    private static final class Snapshot
+    {
+
+        private final WordEntry[] words;
+        private final int[] rowsById;
+
+        Snapshot(WordEntry[] words)
+        {
+            this.words = words;
+            int maxId = -1;
+            for (WordEntry word : words)
+            {
+                maxId = Math.max(maxId, word.getId());
+            }
+            rowsById = new int[maxId + 1];
+            for (int row = 0; row < words.length; row++)
+            {
+                if (words[row].getId() >= 0)
+                {
+                    rowsById[words[row].getId()] = row;
+                }
+            }
+        }
+
+        /**
+         * @return the row of the given word, or -1 if it isn't in the snapshot
+         */
+        int getRow(WordEntry word)
+        {
+            int id = word.getId();
+            if (id < 0 || id >= rowsById.length || words[rowsById[id]] != word)
+            {
+                return -1;
+            }
+            return rowsById[id];
+        }
+    }
+
+    /**
+     * The outcome of a query: which rows of the list matched, and how many.
+     * The matching rows are also given in the order that the table should
+     * show them in, so that the table doesn't have to sort them on the Event
+     * Dispatch Thread.
+     */
+    public static final class Result
+    {
+
+        private final WordlistQuery query;
+        private final BitSet matches;
+        private final int matchCount;
+        private final int entryCount;
+
+        /**
+         * The matching rows in the order to show them in, or null if every
+         * row matched an empty query.
+         */
+        private final int[] rows;
+
+        /**
+         * The edit distance of each matching row to the text of a fuzzy
+         * query, or null if the query isn't fuzzy.
+         */
+        private final byte[] editDistances;
+
+        private Result(WordlistQuery query, BitSet matches, int matchCount, int entryCount, int[] rows, byte[] editDistances)
+        {
+            this.query = query;
+            this.matches = matches;
+            this.matchCount = matchCount;
+            this.entryCount = entryCount;
+            this.rows = rows;
+            this.editDistances = editDistances;
+        }
+
+        /**
+         * @return the query that produced this result
+         */
+        public WordlistQuery getQuery()
+        {
+            return query;
+        }
+
+        /**
+         * @return the number of matching rows
+         */
+        public int getMatchCount()
+        {
+            return matchCount;
+        }
+
+        /**
+         * @return the number of rows in the list when the query ran
+         */
+        public int getEntryCount()
+        {
+            return entryCount;
+        }
+
+        /**
+         * @param row a row index of the model
+         * @return true if the row matched the query
+         */
+        public boolean matches(int row)
+        {
+            return query.isEmpty() || matches.get(row);
+        }
+
+        /**
+         * @return true if the rows should be ranked by their edit distance,
+         * since the query is fuzzy
+         */
+        public boolean isRanked()
+        {
+            return editDistances != null;
+        }
+
+        /**
+         * @param row a row index of the model
+         * @return the number of typos between the query text and the closest
+         * field of the row, if the row matched a fuzzy query, otherwise 0
+         */
+        public int getEditDistance(int row)
+        {
+            return (editDistances != null && row < editDistances.length) ? editDistances[row] : 0;
+        }
+
+        /**
+         * Returns the matching rows of the model in the order that the table
+         * should show them in when it isn't sorted by a column: ranked by
+         * their edit distance if the query is fuzzy, otherwise in list order.
+         *
+         * @return the matching rows, which must not be modified, or null if
+         * every row matched an empty query
+         */
+        public int[] getRows()
+        {
+            return rows;
+        }
+    }
+}
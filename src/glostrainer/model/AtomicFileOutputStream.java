@@ -0,0 +1,144 @@
+package glostrainer.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An output stream that replaces a file only once everything has been written
+ * successfully. The data is written to a temporary file next to the target
+ * file, with the extension <code>.tmp</code> added. When
+ * <code>commit()</code> is invoked, the temporary file is forced to disk and
+ * then atomically moved over the target file. If the stream is closed without
+ * being committed, e.g. because writing failed or was cancelled, the
+ * temporary file is deleted and the target file is left as it was.
+ *
+ * This way a crash or a full disk while saving can never leave a truncated
+ * word list behind: the file either has its old or its new contents.
+ *
+ * The stream is not buffered.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class AtomicFileOutputStream extends FilterOutputStream
+{
+
+    private final File file;
+    private final File temporaryFile;
+    private final FileOutputStream fileOut;
+    private boolean committed;
+    private boolean closed;
+
+    /**
+     * Creates the temporary file for replacing the given file.
+     *
+     * @param file the file to replace
+     * @throws IOException if the temporary file could not be created
+     */
+    public AtomicFileOutputStream(File file) throws IOException
+    {
+        super(new FileOutputStream(getTemporaryFile(file)));
+        this.file = file;
+        this.temporaryFile = getTemporaryFile(file);
+        this.fileOut = (FileOutputStream) out;
+    }
+
+    private static File getTemporaryFile(File file)
+    {
+        return new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+    }
+
+    /**
+     * @return the file that is replaced
+     */
+    public File getFile()
+    {
+        return file;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        // FilterOutputStream would write the bytes one at a time
+        out.write(b, off, len);
+    }
+
+    /**
+     * Forces the written data to disk, closes the stream and moves the
+     * temporary file over the target file.
+     *
+     * @throws IOException if the data could not be written or the file could
+     * not be replaced, in which case the target file is left unchanged
+     */
+    public void commit() throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("Stream is already closed");
+        }
+        flush();
+        fileOut.getChannel().force(true);
+        closed = true;
+        fileOut.close();
+
+        Path source = temporaryFile.toPath();
+        Path target = file.toPath();
+        try
+        {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex)
+        {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+        forceDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Closes the stream. Unless it has been committed, the temporary file is
+     * deleted.
+     *
+     * @throws IOException if the stream could not be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (committed)
+        {
+            return;
+        }
+        try
+        {
+            if (!closed)
+            {
+                closed = true;
+                fileOut.close();
+            }
+        } finally
+        {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    /**
+     * Makes the rename durable as well. Not every platform can open
+     * directories, in which case this does nothing.
+     */
+    private static void forceDirectory(Path directory)
+    {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ))
+        {
+            channel.force(true);
+        } catch (IOException ex)
+        {
+            // not supported on this platform
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package glostrainer.model;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A Burkhard-Keller tree of strings, which finds every string within a given
+ * Levenshtein distance of a query without comparing the query to all of them.
+ * Each node holds a string, and the children of a node are labelled with
+ * their distance to it. Since the distance satisfies the triangle inequality,
+ * a string within distance <code>d</code> of the query can only be found
+ * below children whose label is within <code>d</code> of the distance between
+ * the query and their parent, and the other children are skipped.
+ *
+ * The nodes are kept in parallel arrays, with the children of a node in a
+ * linked list, so that a tree of several hundred thousand strings does not
+ * need an object per node. Strings can't be removed; callers are expected to
+ * ignore strings they no longer need and to rebuild the tree now and then.
+ *
+ * The class is not thread-safe.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+class BKTree
+{
+
+    private String[] strings = new String[1024];
+    private int[] distances = new int[1024];
+    private int[] firstChildren = new int[1024];
+    private int[] nextSiblings = new int[1024];
+    private int size;
+
+    /**
+     * Reused by <code>distance()</code>.
+     */
+    private int[] previousRow = new int[32];
+    private int[] currentRow = new int[32];
+
+    /**
+     * @return the number of strings in the tree
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Adds a string to the tree, unless it is already in it.
+     *
+     * @param string the string to add
+     */
+    void add(String string)
+    {
+        if (size == 0)
+        {
+            addNode(string, 0);
+            return;
+        }
+        int node = 0;
+        while (true)
+        {
+            int distance = distance(string, strings[node]);
+            if (distance == 0)
+            {
+                return;
+            }
+            int child = firstChildren[node] - 1;
+            while (child >= 0 && distances[child] != distance)
+            {
+                child = nextSiblings[child] - 1;
+            }
+            if (child < 0)
+            {
+                int added = addNode(string, distance);
+                nextSiblings[added] = firstChildren[node];
+                firstChildren[node] = added + 1;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Finds the strings in the tree within the given distance of the query,
+     * and hands each of them to the consumer along with its distance.
+     *
+     * @param query the string to look for
+     * @param maxDistance the largest distance to accept
+     * @param consumer receives the strings that were found
+     */
+    void search(String query, int maxDistance, ObjIntConsumer<String> consumer)
+    {
+        if (size == 0)
+        {
+            return;
+        }
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0)
+        {
+            int node = stack[--top];
+            int distance = distance(query, strings[node]);
+            if (distance <= maxDistance)
+            {
+                consumer.accept(strings[node], distance);
+            }
+            for (int child = firstChildren[node] - 1; child >= 0; child = nextSiblings[child] - 1)
+            {
+                if (Math.abs(distances[child] - distance) <= maxDistance)
+                {
+                    if (top == stack.length)
+                    {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the node index of the new node. Child and sibling links are
+     * stored plus one, so that zero means none.
+     */
+    private int addNode(String string, int distance)
+    {
+        if (size == strings.length)
+        {
+            strings = Arrays.copyOf(strings, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+            firstChildren = Arrays.copyOf(firstChildren, size * 2);
+            nextSiblings = Arrays.copyOf(nextSiblings, size * 2);
+        }
+        strings[size] = string;
+        distances[size] = distance;
+        firstChildren[size] = 0;
+        nextSiblings[size] = 0;
+        return size++;
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, i.e. the
+     * smallest number of inserted, deleted or substituted characters that
+     * turns one into the other.
+     */
+    private int distance(String a, String b)
+    {
+        if (b.length() + 1 > previousRow.length)
+        {
+            previousRow = new int[b.length() + 1];
+            currentRow = new int[b.length() + 1];
+        }
+        return editDistance(a, b, previousRow, currentRow);
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings.
+     *
+     * @param a a string
+     * @param b another string
+     * @return the distance between the strings
+     */
+    static int editDistance(String a, String b)
+    {
+        return editDistance(a, b, new int[b.length() + 1], new int[b.length() + 1]);
+    }
+
+    private static int editDistance(String a, String b, int[] previous, int[] current)
+    {
+        for (int j = 0; j <= b.length(); j++)
+        {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++)
+        {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++)
+            {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,641 @@
+package glostrainer.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates synthetic word lists for load and scale testing. The words are
+ * made up from Swedish-looking syllables, but nouns, verbs and adjectives are
+ * inflected by the regular Swedish patterns, so their optional forms look
+ * like the ones a user would enter. Definitions and user notes are made up
+ * from English-looking words, with lengths that vary like in real lists:
+ * most definitions are one or two words, and most words have no notes, but a
+ * few have long ones.
+ *
+ * A generator produces the same words in the same order for the same seed
+ * and word class mix. Lists can be generated into memory, or streamed
+ * straight to a word list file, which makes it possible to create files with
+ * tens of millions of entries.
+ *
+ * The class can also be run from the command line:
+ * <pre>
+ * java -cp GlosTrainer.jar glostrainer.model.CorpusGenerator file count [seed] [mix]
+ * </pre>
+ * where <code>mix</code> is a comma-separated list of word class weights,
+ * e.g. <code>NOUN=50,VERB=30,ADJECTIVE=20</code>.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class CorpusGenerator
+{
+
+    private static final String[] ONSETS =
+    {
+        "b", "d", "f", "g", "h", "j", "k", "l", "m", "n", "p", "r", "s", "t",
+        "v", "bl", "br", "dr", "fl", "fr", "gl", "gr", "kl", "kr", "pl", "pr",
+        "sk", "sl", "sm", "sn", "sp", "st", "sv", "tr", "skr", "spr", "str"
+    };
+
+    private static final String[] VOWELS =
+    {
+        "a", "a", "e", "e", "i", "o", "u", "y", "å", "ä", "ö"
+    };
+
+    private static final String[] CODAS =
+    {
+        "", "", "", "n", "r", "l", "t", "k", "g", "m", "s", "d", "p", "ng",
+        "nd", "st", "ck", "ll", "rt", "rk", "lk", "mp", "nk"
+    };
+
+    /**
+     * Consonants that are added to verb stems that end with a vowel, since the
+     * first and second conjugations need a stem that ends with a consonant.
+     */
+    private static final String[] VERB_STEM_ENDINGS =
+    {
+        "k", "l", "p", "r", "s", "t", "v", "nd", "ng", "pp", "tt"
+    };
+
+    private static final String[] ENGLISH_ONSETS =
+    {
+        "b", "c", "d", "f", "g", "h", "l", "m", "n", "p", "r", "s", "t", "w",
+        "br", "ch", "cl", "cr", "dr", "fl", "gr", "pl", "sh", "sl", "st", "th",
+        "tr", ""
+    };
+
+    private static final String[] ENGLISH_VOWELS =
+    {
+        "a", "e", "i", "o", "u", "ea", "ee", "oo", "ai", "ou"
+    };
+
+    private static final String[] ENGLISH_CODAS =
+    {
+        "", "d", "k", "l", "m", "n", "p", "r", "t", "ll", "ng", "nd", "st",
+        "ck", "sh", "rn", "ss"
+    };
+
+    private static final String[] ENGLISH_SUFFIXES =
+    {
+        "", "", "", "", "ing", "er", "ed", "ly", "ness", "tion", "y", "s"
+    };
+
+    private static final String[] PERSONAL_PRONOUNS =
+    {
+        "jag", "mig", "min", "mitt", "mina",
+        "du", "dig", "din", "ditt", "dina",
+        "han", "sig", "sin", "sitt", "sina",
+        "hon", "sig", "sin", "sitt", "sina",
+        "vi", "oss", "vår", "vårt", "våra",
+        "ni", "er", "er", "ert", "era",
+        "de", "sig", "sin", "sitt", "sina"
+    };
+
+    private static final String[] CARDINALS =
+    {
+        "en", "två", "tre", "fyra", "fem", "sex", "sju", "åtta",
+        "nio", "tio", "elva", "tolv", "tjugo", "hundra", "tusen"
+    };
+
+    private static final String[] ORDINALS =
+    {
+        "första", "andra", "tredje", "fjärde", "femte", "sjätte",
+        "sjunde", "åttonde", "nionde", "tionde", "elfte", "tolfte",
+        "tjugonde", "hundrade", "tusende"
+    };
+
+    private final Random random;
+    private final WordClass[] wordClasses;
+    private final int[] cumulativeWeights;
+
+    /**
+     * Creates a generator with the given seed and the mix of word classes
+     * returned by <code>getDefaultMix()</code>.
+     *
+     * @param seed the seed of the random number generator
+     */
+    public CorpusGenerator(long seed)
+    {
+        this(seed, getDefaultMix());
+    }
+
+    /**
+     * Creates a generator with the given seed and mix of word classes.
+     *
+     * @param seed the seed of the random number generator
+     * @param mix the relative number of words to generate of each word class;
+     * classes that are missing are not generated
+     * @throws IllegalArgumentException if a weight is negative or all weights
+     * are zero
+     */
+    public CorpusGenerator(long seed, Map<WordClass, Integer> mix)
+    {
+        this.random = new Random(seed);
+        List<WordClass> classes = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int total = 0;
+        for (WordClass wordClass : WordClass.values())
+        {
+            int weight = mix.getOrDefault(wordClass, 0);
+            if (weight < 0)
+            {
+                throw new IllegalArgumentException("Negative weight for " + wordClass.name());
+            }
+            if (weight > 0)
+            {
+                total += weight;
+                classes.add(wordClass);
+                weights.add(total);
+            }
+        }
+        if (total == 0)
+        {
+            throw new IllegalArgumentException("The word class mix is empty");
+        }
+        this.wordClasses = classes.toArray(new WordClass[classes.size()]);
+        this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns a mix of word classes that resembles a typical vocabulary list:
+     * mostly nouns, then verbs and adjectives, and a few of everything else.
+     *
+     * @return the relative number of words of each word class
+     */
+    public static Map<WordClass, Integer> getDefaultMix()
+    {
+        Map<WordClass, Integer> mix = new EnumMap<>(WordClass.class);
+        mix.put(WordClass.NOUN, 45);
+        mix.put(WordClass.VERB, 22);
+        mix.put(WordClass.ADJECTIVE, 15);
+        mix.put(WordClass.ADVERB, 6);
+        mix.put(WordClass.PREPOSITION, 2);
+        mix.put(WordClass.CONJUNCTION, 1);
+        mix.put(WordClass.INTERJECTION, 1);
+        mix.put(WordClass.PERSONAL_PRONOUN, 1);
+        mix.put(WordClass.OTHER_PRONOUN, 1);
+        mix.put(WordClass.NUMERAL, 1);
+        mix.put(WordClass.PHRASE, 4);
+        mix.put(WordClass.OTHER, 1);
+        return Collections.unmodifiableMap(mix);
+    }
+
+    /**
+     * Parses a word class mix such as <code>NOUN=50,VERB=30</code>, where the
+     * names are the names of the <code>WordClass</code> constants.
+     *
+     * @param mix the mix to parse
+     * @return the parsed mix
+     * @throws IllegalArgumentException if the mix could not be parsed
+     */
+    public static Map<WordClass, Integer> parseMix(String mix)
+    {
+        Map<WordClass, Integer> result = new EnumMap<>(WordClass.class);
+        for (String part : mix.split(","))
+        {
+            String[] nameAndWeight = part.trim().split("=");
+            if (nameAndWeight.length != 2)
+            {
+                throw new IllegalArgumentException("Expected CLASS=weight but got \"" + part + "\"");
+            }
+            result.put(WordClass.valueOf(nameAndWeight[0].trim()), Integer.parseInt(nameAndWeight[1].trim()));
+        }
+        return result;
+    }
+
+    /**
+     * Generates the next word entry.
+     *
+     * @return a new word entry
+     */
+    public WordEntry next()
+    {
+        WordClass wordClass = nextWordClass();
+        switch (wordClass)
+        {
+            case NOUN:
+                return createNoun();
+            case VERB:
+                return createVerb();
+            case ADJECTIVE:
+                return createAdjective();
+            case PERSONAL_PRONOUN:
+                return createPersonalPronoun();
+            case NUMERAL:
+                return createNumeral();
+            case PHRASE:
+                return createPhrase();
+            default:
+                return createWord(wordClass, createStem(1 + random.nextInt(2)), new LinkedHashMap<>(), 1);
+        }
+    }
+
+    /**
+     * Generates the given number of word entries into a list.
+     *
+     * @param count the number of entries
+     * @return the entries
+     */
+    public List<WordEntry> generate(int count)
+    {
+        List<WordEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            entries.add(next());
+        }
+        return entries;
+    }
+
+    /**
+     * Generates a word list model with the given number of entries.
+     *
+     * @param count the number of entries
+     * @return the model
+     */
+    public WordlistModel generateModel(int count)
+    {
+        WordlistModel model = new WordlistModel();
+        for (int i = 0; i < count; i++)
+        {
+            model.addWordEntry(next());
+        }
+        return model;
+    }
+
+    /**
+     * Generates the given number of word entries and writes them to the given
+     * stream in the word list file format, one at a time, so that only the
+     * entry being written is held in memory. The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @param count the number of entries
+     * @throws IOException if writing failed
+     */
+    public void writeTo(OutputStream out, int count) throws IOException
+    {
+        WordlistWriter writer = new WordlistWriter(out, count, Collections.emptyList());
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                writer.writeEntry(next());
+            }
+            writer.finish();
+        } finally
+        {
+            writer.discard();
+        }
+    }
+
+    /**
+     * Generates the given number of word entries into a word list file.
+     *
+     * @param file the file to write
+     * @param count the number of entries
+     * @throws IOException if the file could not be written
+     */
+    public void writeTo(File file, int count) throws IOException
+    {
+        try (OutputStream out = new FileOutputStream(file))
+        {
+            writeTo(out, count);
+        }
+    }
+
+    private WordClass nextWordClass()
+    {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++)
+        {
+            if (pick < cumulativeWeights[i])
+            {
+                return wordClasses[i];
+            }
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Creates a noun from one of the five Swedish declensions.
+     */
+    private WordEntry createNoun()
+    {
+        String stem = createStem(1 + random.nextInt(2));
+        String article = "en";
+        String singular;
+        String singularDefinite;
+        String plural;
+        String pluralDefinite;
+        switch (random.nextInt(5))
+        {
+            case 0: // flicka - flickor
+                singular = stem + "a";
+                singularDefinite = singular + "n";
+                plural = stem + "or";
+                pluralDefinite = plural + "na";
+                break;
+            case 1: // bil - bilar, pojke - pojkar
+                singular = stem;
+                singularDefinite = stem + (endsWithVowel(stem) ? "n" : "en");
+                plural = (endsWithVowel(stem) ? stem.substring(0, stem.length() - 1) : stem) + "ar";
+                pluralDefinite = plural + "na";
+                break;
+            case 2: // park - parker
+                singular = stem;
+                singularDefinite = stem + (endsWithVowel(stem) ? "n" : "en");
+                plural = stem + (endsWithVowel(stem) ? "r" : "er");
+                pluralDefinite = plural + "na";
+                break;
+            case 3: // äpple - äpplen
+                article = "ett";
+                singular = endsWithVowel(stem) ? stem : stem + "e";
+                singularDefinite = singular + "t";
+                plural = singular + "n";
+                pluralDefinite = singular + "na";
+                break;
+            default: // hus - hus
+                article = "ett";
+                singular = stem;
+                singularDefinite = stem + (endsWithVowel(stem) ? "t" : "et");
+                plural = stem;
+                pluralDefinite = stem + (endsWithVowel(stem) ? "n" : "en");
+                break;
+        }
+        String[] forms =
+        {
+            singularDefinite, plural, pluralDefinite,
+            genitive(singular), genitive(singularDefinite), genitive(plural), genitive(pluralDefinite)
+        };
+        return createWord(WordClass.NOUN, article + " " + singular, formsOf(WordClass.NOUN, forms), 1);
+    }
+
+    /**
+     * Creates a verb from one of the four Swedish conjugations.
+     */
+    private WordEntry createVerb()
+    {
+        String stem = createStem(1 + random.nextInt(2));
+        if (endsWithVowel(stem))
+        {
+            stem += pick(VERB_STEM_ENDINGS);
+        }
+        String[] forms;
+        String infinitive;
+        switch (random.nextInt(4))
+        {
+            case 0: // tala - talade
+                infinitive = stem + "a";
+                forms = new String[]
+                {
+                    infinitive + "r", infinitive + "de", infinitive + "t", infinitive,
+                    infinitive + "nde", infinitive + "s", infinitive + "s", infinitive + "des", infinitive + "ts"
+                };
+                break;
+            case 1: // stänga - stängde
+                infinitive = stem + "a";
+                forms = new String[]
+                {
+                    stem + "er", stem + "de", stem + "t", stem,
+                    stem + "ande", stem + "as", stem + "s", stem + "des", stem + "ts"
+                };
+                break;
+            case 2: // köpa - köpte
+                infinitive = stem + "a";
+                forms = new String[]
+                {
+                    stem + "er", stem + "te", stem + "t", stem,
+                    stem + "ande", stem + "as", stem + "s", stem + "tes", stem + "ts"
+                };
+                break;
+            default: // bo - bodde
+                stem = createSyllable(false);
+                infinitive = stem;
+                forms = new String[]
+                {
+                    stem + "r", stem + "dde", stem + "tt", stem,
+                    stem + "ende", stem + "s", stem + "s", stem + "ddes", stem + "tts"
+                };
+                break;
+        }
+        return createWord(WordClass.VERB, "att " + infinitive, formsOf(WordClass.VERB, forms), 1);
+    }
+
+    /**
+     * Creates a regularly compared adjective.
+     */
+    private WordEntry createAdjective()
+    {
+        String stem = createStem(1 + random.nextInt(2));
+        if (endsWithVowel(stem))
+        {
+            stem += "l";
+        }
+        String neuter = stem.endsWith("t") ? stem : stem.endsWith("d") ? stem.substring(0, stem.length() - 1) + "tt" : stem + "t";
+        String[] forms =
+        {
+            stem, neuter, stem + "a", stem + "e",
+            stem + "are", stem + "ast", stem + "aste", stem + "aste"
+        };
+        return createWord(WordClass.ADJECTIVE, stem, formsOf(WordClass.ADJECTIVE, forms), 1);
+    }
+
+    private WordEntry createPersonalPronoun()
+    {
+        int person = random.nextInt(PERSONAL_PRONOUNS.length / 5) * 5;
+        String[] forms =
+        {
+            PERSONAL_PRONOUNS[person + 1], PERSONAL_PRONOUNS[person + 2],
+            PERSONAL_PRONOUNS[person + 3], PERSONAL_PRONOUNS[person + 4]
+        };
+        return createWord(WordClass.PERSONAL_PRONOUN, PERSONAL_PRONOUNS[person], formsOf(WordClass.PERSONAL_PRONOUN, forms), 1);
+    }
+
+    private WordEntry createNumeral()
+    {
+        int number = random.nextInt(CARDINALS.length);
+        String ordinal = ORDINALS[number];
+        String[] forms =
+        {
+            ordinal, genitive(ordinal), ordinal.substring(0, ordinal.length() - 1) + "e",
+            genitive(ordinal.substring(0, ordinal.length() - 1) + "e")
+        };
+        return createWord(WordClass.NUMERAL, CARDINALS[number], formsOf(WordClass.NUMERAL, forms), 1);
+    }
+
+    private WordEntry createPhrase()
+    {
+        int wordCount = 2 + random.nextInt(4);
+        StringBuilder phrase = new StringBuilder(createStem(1 + random.nextInt(2)));
+        for (int i = 1; i < wordCount; i++)
+        {
+            phrase.append(' ').append(createStem(1 + random.nextInt(2)));
+        }
+        String[] forms =
+        {
+            createSentence(4 + random.nextInt(10))
+        };
+        return createWord(WordClass.PHRASE, phrase.toString(), formsOf(WordClass.PHRASE, forms), 3);
+    }
+
+    private WordEntry createWord(WordClass wordClass, String dictionaryForm, LinkedHashMap<String, String> optionalForms, int minimumDefinitionWords)
+    {
+        String definition = createDefinition(wordClass, minimumDefinitionWords);
+        return new WordEntry(wordClass, dictionaryForm, definition, optionalForms, createUserNotes());
+    }
+
+    private static LinkedHashMap<String, String> formsOf(WordClass wordClass, String[] values)
+    {
+        LinkedHashMap<String, String> forms = new LinkedHashMap<>();
+        String[] names = wordClass.getOptionalForms();
+        for (int i = 0; i < names.length && i < values.length; i++)
+        {
+            forms.put(names[i], values[i]);
+        }
+        return forms;
+    }
+
+    /**
+     * Definitions are usually a single word or two, sometimes a few synonyms
+     * separated by commas. Verbs start with "to", like in a dictionary.
+     */
+    private String createDefinition(WordClass wordClass, int minimumWords)
+    {
+        StringBuilder definition = new StringBuilder();
+        if (wordClass == WordClass.VERB)
+        {
+            definition.append("to ");
+        }
+        int words = Math.max(minimumWords, 1 + geometric(0.55, 6));
+        definition.append(createEnglishWord());
+        for (int i = 1; i < words; i++)
+        {
+            definition.append(random.nextInt(3) == 0 ? ", " : " ").append(createEnglishWord());
+        }
+        return definition.toString();
+    }
+
+    /**
+     * Most words have no notes. The others have a sentence or a few, and a
+     * small number of words have long notes.
+     */
+    private String createUserNotes()
+    {
+        if (random.nextInt(10) < 7)
+        {
+            return "";
+        }
+        int sentences = 1 + geometric(0.5, 12);
+        StringBuilder notes = new StringBuilder();
+        for (int i = 0; i < sentences; i++)
+        {
+            if (i > 0)
+            {
+                notes.append(' ');
+            }
+            notes.append(createSentence(3 + geometric(0.15, 25)));
+        }
+        return notes.toString();
+    }
+
+    private String createSentence(int words)
+    {
+        StringBuilder sentence = new StringBuilder();
+        String first = createEnglishWord();
+        sentence.append(Character.toUpperCase(first.charAt(0))).append(first.substring(1));
+        for (int i = 1; i < words; i++)
+        {
+            sentence.append(' ').append(createEnglishWord());
+        }
+        return sentence.append('.').toString();
+    }
+
+    private String createStem(int syllables)
+    {
+        StringBuilder stem = new StringBuilder();
+        for (int i = 0; i < syllables; i++)
+        {
+            stem.append(createSyllable(i == syllables - 1));
+        }
+        return stem.toString();
+    }
+
+    private String createSyllable(boolean withCoda)
+    {
+        return pick(ONSETS) + pick(VOWELS) + (withCoda ? pick(CODAS) : "");
+    }
+
+    private String createEnglishWord()
+    {
+        StringBuilder word = new StringBuilder();
+        int syllables = 1 + geometric(0.6, 3);
+        for (int i = 0; i < syllables; i++)
+        {
+            word.append(pick(ENGLISH_ONSETS)).append(pick(ENGLISH_VOWELS));
+        }
+        return word.append(pick(ENGLISH_CODAS)).append(pick(ENGLISH_SUFFIXES)).toString();
+    }
+
+    /**
+     * Returns the number of failed trials before the first success, with the
+     * given success probability, but at most <code>max</code>.
+     */
+    private int geometric(double p, int max)
+    {
+        int n = 0;
+        while (n < max && random.nextDouble() >= p)
+        {
+            n++;
+        }
+        return n;
+    }
+
+    private String pick(String[] choices)
+    {
+        return choices[random.nextInt(choices.length)];
+    }
+
+    private static boolean endsWithVowel(String s)
+    {
+        return "aeiouyåäö".indexOf(s.charAt(s.length() - 1)) >= 0;
+    }
+
+    private static String genitive(String s)
+    {
+        char last = s.charAt(s.length() - 1);
+        return last == 's' || last == 'x' || last == 'z' ? s : s + "s";
+    }
+
+    /**
+     * Writes a generated word list file.
+     *
+     * @param args the file, the number of entries, and optionally the seed and
+     * the word class mix
+     * @throws IOException if the file could not be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length < 2 || args.length > 4)
+        {
+            System.err.println("Usage: CorpusGenerator file count [seed] [mix]");
+            System.err.println("  mix is a list of word class weights, e.g. NOUN=50,VERB=30,ADJECTIVE=20");
+            System.exit(1);
+        }
+        File file = new File(args[0]);
+        int count = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        Map<WordClass, Integer> mix = args.length > 3 && !args[3].trim().isEmpty() ? parseMix(args[3]) : getDefaultMix();
+
+        long start = System.nanoTime();
+        new CorpusGenerator(seed, mix).writeTo(file, count);
+        System.out.printf("Wrote %d entries to %s (%d bytes) in %d ms%n",
+                count, file, file.length(), (System.nanoTime() - start) / 1000000);
+    }
+}
@@ -0,0 +1,304 @@
+package glostrainer.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A read-only word list that decodes its entries on demand from a memory-mapped
+ * <code>.gtl</code> file, for lists that are too large to be loaded into the
+ * heap as a whole. The file has to be in the version 3 format described in
+ * <code>WordlistFileFormat</code>, whose offset table tells where each entry
+ * starts, so that <code>getWordEntryAtIndex()</code> only has to decode the
+ * requested entry. A word list of any length is saved in this format by
+ * <code>WordlistModel.saveToFile()</code>.
+ *
+ * The most recently requested entries are kept in a cache that is comfortably
+ * larger than the number of rows that fit in a table, so scrolling and
+ * repainting a table that reads from this list only decodes the rows that come
+ * into view, and keeps handing out the same <code>WordEntry</code> instances
+ * for the rows that stay in view. Apart from the cache and the string table of
+ * the file, the list uses no heap, whatever the size of the file. The List
+ * panel shows a file this way when the user opens it read-only.
+ *
+ * The list can't be changed, and does not see changes made to the file after
+ * it was opened. Files that have a journal (see <code>WordlistJournal</code>)
+ * are refused, since the changes in the journal would not be shown. Its
+ * methods may be invoked from any thread.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class MappedWordlist implements WordlistInterface, Closeable
+{
+
+    /**
+     * The maximum number of decoded entries to cache.
+     */
+    public static final int CACHE_SIZE = 2048;
+
+    /**
+     * The file is mapped in segments of this size, since a single mapping can
+     * be at most 2 GB.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final File file;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final String[] formNames;
+    private final int entryCount;
+    private final long offsetTablePosition;
+
+    /**
+     * Recently decoded entries in access order, keyed by index.
+     */
+    private final Map<Integer, WordEntry> cache = new LinkedHashMap<Integer, WordEntry>(CACHE_SIZE, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, WordEntry> eldest)
+        {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private MappedWordlist(File file, FileChannel channel) throws IOException
+    {
+        this.file = file;
+        this.channel = channel;
+
+        long length = channel.size();
+        segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++)
+        {
+            long position = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, length - position));
+        }
+        if (segments.length == 0)
+        {
+            throw new IOException("Not a GlosTrainer word list file");
+        }
+
+        WordlistReader header = new WordlistReader(new ByteBufferInputStream(segments[0].duplicate()));
+        if (!header.isCurrentVersion())
+        {
+            throw new IOException("The word list file has to be saved again before it can be opened read-only");
+        }
+        formNames = header.getFormNames();
+        entryCount = header.getEntryCount();
+
+        offsetTablePosition = readLong(length - WordlistFileFormat.OFFSET_LENGTH);
+        if (offsetTablePosition < 0
+                || offsetTablePosition + (entryCount + 1L) * WordlistFileFormat.OFFSET_LENGTH != length)
+        {
+            throw new IOException("The offset table of the word list file is corrupt");
+        }
+    }
+
+    /**
+     * Maps the given file into memory. Only the header of the file is read.
+     *
+     * @param file the file to open
+     * @return a list of the entries in the file
+     * @throws IOException if the file could not be opened, is not a word list,
+     * is not in the current format or has a journal
+     */
+    public static MappedWordlist open(File file) throws IOException
+    {
+        File journalFile = new WordlistJournal(file).getJournalFile();
+        if (journalFile.exists())
+        {
+            throw new IOException("The word list file has changes in " + journalFile.getName()
+                    + " that haven't been written to it yet. Load the list to see them.");
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try
+        {
+            return new MappedWordlist(file, channel);
+        } catch (IOException | RuntimeException ex)
+        {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the file that this list reads from
+     */
+    public File getFile()
+    {
+        return file;
+    }
+
+    @Override
+    public int getEntryCount()
+    {
+        return entryCount;
+    }
+
+    /**
+     * Returns the word entry at the given index, decoding it from the file if
+     * it isn't cached.
+     *
+     * @param index the index of the entry
+     * @return the entry
+     * @throws IndexOutOfBoundsException if the index is out of range
+     * <code>(index &lt; 0 || index &gt;= getEntryCount())</code>
+     * @throws IllegalStateException if the entry could not be decoded
+     */
+    @Override
+    public synchronized WordEntry getWordEntryAtIndex(int index)
+    {
+        if (index < 0 || index >= entryCount)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + entryCount);
+        }
+        WordEntry word = cache.get(index);
+        if (word == null)
+        {
+            word = decodeEntry(index);
+            cache.put(index, word);
+        }
+        return word;
+    }
+
+    private WordEntry decodeEntry(int index)
+    {
+        long offsetPosition = offsetTablePosition + (long) index * WordlistFileFormat.OFFSET_LENGTH;
+        long start = readLong(offsetPosition);
+        long end = (index + 1 < entryCount) ? readLong(offsetPosition + WordlistFileFormat.OFFSET_LENGTH) : offsetTablePosition;
+        if (start < 0 || end < start || end > offsetTablePosition || end - start > Integer.MAX_VALUE)
+        {
+            throw new IllegalStateException("Corrupt offset of entry " + index + " in " + file);
+        }
+        try
+        {
+            return WordlistFileFormat.readEntry(new ByteBufferInputStream(slice(start, (int) (end - start))), formNames);
+        } catch (IOException ex)
+        {
+            throw new IllegalStateException("Couldn't decode entry " + index + " in " + file, ex);
+        }
+    }
+
+    private long readLong(long position)
+    {
+        return slice(position, WordlistFileFormat.OFFSET_LENGTH).getLong();
+    }
+
+    /**
+     * Returns the bytes of the file from the given position. If they are in a
+     * single segment, the segment is shared, otherwise they are copied.
+     */
+    private ByteBuffer slice(long position, int length)
+    {
+        int segment = (int) (position >>> SEGMENT_SHIFT);
+        int offset = (int) (position & (SEGMENT_SIZE - 1));
+        if (offset + length <= segments[segment].capacity())
+        {
+            ByteBuffer bytes = segments[segment].duplicate();
+            bytes.position(offset);
+            bytes.limit(offset + length);
+            return bytes;
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (bytes.hasRemaining())
+        {
+            ByteBuffer source = segments[segment++].duplicate();
+            source.position(offset);
+            source.limit(Math.min(source.capacity(), offset + bytes.remaining()));
+            bytes.put(source);
+            offset = 0;
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Not supported, since the list is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addWordEntry(WordEntry wordEntry)
+    {
+        throw new UnsupportedOperationException("Memory-mapped word lists are read-only");
+    }
+
+    /**
+     * Not supported, since the list is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void replaceWordEntryAtIndex(int index, WordEntry word)
+    {
+        throw new UnsupportedOperationException("Memory-mapped word lists are read-only");
+    }
+
+    /**
+     * Not supported, since the list is read-only.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void removeWordEntryAtIndex(int index)
+    {
+        throw new UnsupportedOperationException("Memory-mapped word lists are read-only");
+    }
+
+    /**
+     * Closes the file. The mapped memory is released once the list has been
+     * garbage collected.
+     *
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        cache.clear();
+        channel.close();
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream
+    {
+
+        private final ByteBuffer bytes;
+
+        ByteBufferInputStream(ByteBuffer bytes)
+        {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public int read()
+        {
+            return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (!bytes.hasRemaining())
+            {
+                return -1;
+            }
+            int n = Math.min(len, bytes.remaining());
+            bytes.get(b, off, n);
+            return n;
+        }
+    }
+}
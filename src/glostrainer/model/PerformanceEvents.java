@@ -0,0 +1,179 @@
+package glostrainer.model;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Emits Java Flight Recorder events for the phases of GlosTrainer that can
+ * take long with large word lists, so that a recording tells which phase was
+ * slow when the application seemed to hang. Every event has the duration of
+ * the phase, the number of entries it handled, the number of bytes it read or
+ * wrote, if any, and a description, such as the file name. The events are in
+ * the category "GlosTrainer" and named <code>glostrainer.Load</code>,
+ * <code>glostrainer.Save</code> and so on.
+ *
+ * A phase is measured with
+ * <pre>
+ * PerformanceEvents.Span span = PerformanceEvents.begin(PerformanceEvents.Phase.LOAD);
+ * ...
+ * span.end(entryCount, byteCount, file.getName());
+ * </pre>
+ * and should be ended on the thread that began it. Spans that are not ended,
+ * e.g. because the phase failed, are simply not recorded.
+ *
+ * Flight Recorder is not part of every Java 8 runtime. The events are
+ * defined by <code>FlightRecorderEvents</code>, which is compiled separately
+ * for Java 11 and loaded by name. Where Flight Recorder or that class is
+ * missing, or no recording is running, the spans do nothing. To record the events
+ * without attaching a profiler, start GlosTrainer with the system property
+ * <code>glostrainer.jfr</code> set to the name of a file; a recording of the
+ * events and the default JVM events is then written to that file when the
+ * application exits.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public final class PerformanceEvents
+{
+
+    /**
+     * The system property with the file to write a recording to.
+     */
+    public static final String RECORDING_PROPERTY = "glostrainer.jfr";
+
+    /**
+     * The phases that are recorded.
+     */
+    public enum Phase
+    {
+
+        /**
+         * Reading a word list file.
+         */
+        LOAD,
+        /**
+         * Writing a word list file or its journal.
+         */
+        SAVE,
+        /**
+         * Finding the rows that match a filter query.
+         */
+        FILTER,
+        /**
+         * Sorting and filtering the rows of a table.
+         */
+        SORT,
+        /**
+         * Updating the quiz table after the word list has changed.
+         */
+        QUIZ_POPULATION
+    }
+
+    /**
+     * A phase that has begun.
+     */
+    public interface Span
+    {
+
+        /**
+         * Ends the phase and records it.
+         *
+         * @param entryCount the number of entries that the phase handled
+         * @param byteCount the number of bytes that the phase read or wrote,
+         * or 0
+         * @param description what the phase worked on, such as a file name
+         */
+        public void end(int entryCount, long byteCount, String description);
+    }
+
+    /**
+     * Records the phases as Flight Recorder events. Implemented by
+     * <code>FlightRecorderEvents</code>, which is compiled from the
+     * <code>src-jfr</code> folder.
+     */
+    interface Recorder
+    {
+
+        /**
+         * Begins a phase.
+         *
+         * @param phase the phase
+         * @param noSpan the span to return if the phase isn't recorded
+         * @return the span to end when the phase is over
+         */
+        Span begin(Phase phase, Span noSpan);
+
+        /**
+         * Starts a recording that is written to the given file when the
+         * application exits.
+         *
+         * @param file the file to write the recording to
+         */
+        void startRecording(String file);
+    }
+
+    private static final Span NO_SPAN = (entryCount, byteCount, description) ->
+    {
+    };
+
+    private static final Recorder RECORDER = loadRecorder();
+
+    private PerformanceEvents()
+    {
+    }
+
+    /**
+     * @return the Flight Recorder events, or null if the runtime has no
+     * Flight Recorder or GlosTrainer was built without them
+     */
+    private static Recorder loadRecorder()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.Event");
+            return (Recorder) Class.forName(PerformanceEvents.class.getPackage().getName() + ".FlightRecorderEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the runtime has Flight Recorder, and GlosTrainer was
+     * built with its events
+     */
+    public static boolean isAvailable()
+    {
+        return RECORDER != null;
+    }
+
+    /**
+     * Begins a phase.
+     *
+     * @param phase the phase
+     * @return the span to end when the phase is over
+     */
+    public static Span begin(Phase phase)
+    {
+        return (RECORDER != null) ? RECORDER.begin(phase, NO_SPAN) : NO_SPAN;
+    }
+
+    /**
+     * Starts a recording if the system property
+     * <code>glostrainer.jfr</code> names a file to write it to. Failures are
+     * logged and otherwise ignored.
+     */
+    public static void startRecordingIfRequested()
+    {
+        String file = System.getProperty(RECORDING_PROPERTY);
+        if (file == null || file.isEmpty())
+        {
+            return;
+        }
+        if (RECORDER == null)
+        {
+            Logger.getLogger(PerformanceEvents.class.getName()).log(Level.WARNING, "Flight Recorder is not available in this Java runtime or build, not recording to {0}", file);
+            return;
+        }
+        RECORDER.startRecording(file);
+    }
+}
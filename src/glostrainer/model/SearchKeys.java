@@ -0,0 +1,44 @@
+package glostrainer.model;
+
+/**
+ * The searchable fields of a word entry, folded with a
+ * <code>TextFolding</code>, which filter queries compare their folded text
+ * with. The keys are computed once and cached by the word entry (see
+ * <code>WordEntry.getSearchKeys()</code>), so typing a query doesn't fold the
+ * fields of every word again for every character.
+ *
+ * Instances are immutable, and may be shared between threads.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+final class SearchKeys
+{
+
+    final TextFolding folding;
+    final String dictionaryForm;
+    final String definition;
+
+    /**
+     * The folded values of the optional forms, in the order of
+     * <code>WordEntry.getOptionalFormValue()</code>.
+     */
+    final String[] optionalForms;
+
+    /**
+     * The folded value of <code>WordEntry.getOptionalFormsAsString()</code>.
+     */
+    final String optionalFormsAsString;
+
+    SearchKeys(WordEntry word, TextFolding folding)
+    {
+        this.folding = folding;
+        this.dictionaryForm = folding.fold(word.getSwedishDictionaryForm());
+        this.definition = folding.fold(word.getDefinition());
+        this.optionalForms = new String[word.getOptionalFormCount()];
+        for (int i = 0; i < optionalForms.length; i++)
+        {
+            optionalForms[i] = folding.fold(word.getOptionalFormValue(i));
+        }
+        this.optionalFormsAsString = folding.fold(word.getOptionalFormsAsString());
+    }
+}
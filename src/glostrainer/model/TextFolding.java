@@ -0,0 +1,153 @@
+package glostrainer.model;
+
+import java.text.Normalizer;
+
+/**
+ * The differences between characters that searching the word list ignores.
+ * Folding maps every character of a text to a representative of the
+ * characters it shouldn't be told apart from, one character at a time, so
+ * two texts are equal after folding exactly when they are equal when the
+ * ignored differences are disregarded, and a folded text contains a folded
+ * query exactly when the text contains the query in that sense.
+ *
+ * Case is folded the same way as <code>String.equalsIgnoreCase()</code>
+ * compares characters. Diacritics are folded by removing the marks from
+ * letters that decompose into a base letter and combining marks, so that å
+ * and ä are folded to a, ö to o and é to e, which lets "har" match "här" on a
+ * keyboard without Swedish letters.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public enum TextFolding
+{
+
+    /**
+     * Every character is significant.
+     */
+    NONE(false, false),
+    /**
+     * Upper and lower case letters are not told apart.
+     */
+    CASE(true, false),
+    /**
+     * Letters with and without diacritics are not told apart.
+     */
+    DIACRITICS(false, true),
+    /**
+     * Neither case nor diacritics are significant.
+     */
+    CASE_AND_DIACRITICS(true, true);
+
+    /**
+     * The base letter of each character up to the end of Latin Extended-B, or
+     * the character itself if it has no diacritics.
+     */
+    private static final char[] BASE_LETTERS = new char[0x250];
+
+    static
+    {
+        for (char c = 0; c < BASE_LETTERS.length; c++)
+        {
+            BASE_LETTERS[c] = c;
+            if (c >= 0x80)
+            {
+                String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+                if (decomposed.length() > 1 && decomposed.substring(1).codePoints().allMatch((m) -> (Character.getType(m) == Character.NON_SPACING_MARK)))
+                {
+                    BASE_LETTERS[c] = decomposed.charAt(0);
+                }
+            }
+        }
+    }
+
+    private final boolean ignoreCase;
+    private final boolean ignoreDiacritics;
+
+    private TextFolding(boolean ignoreCase, boolean ignoreDiacritics)
+    {
+        this.ignoreCase = ignoreCase;
+        this.ignoreDiacritics = ignoreDiacritics;
+    }
+
+    /**
+     * Returns the folding that ignores the given differences.
+     *
+     * @param ignoreCase true if case should be ignored
+     * @param ignoreDiacritics true if diacritics should be ignored
+     * @return the folding
+     */
+    public static TextFolding of(boolean ignoreCase, boolean ignoreDiacritics)
+    {
+        if (ignoreCase)
+        {
+            return ignoreDiacritics ? CASE_AND_DIACRITICS : CASE;
+        }
+        return ignoreDiacritics ? DIACRITICS : NONE;
+    }
+
+    /**
+     * @return true if case is ignored
+     */
+    public boolean isIgnoreCase()
+    {
+        return ignoreCase;
+    }
+
+    /**
+     * @return true if diacritics are ignored
+     */
+    public boolean isIgnoreDiacritics()
+    {
+        return ignoreDiacritics;
+    }
+
+    /**
+     * Folds a single character.
+     *
+     * @param c the character to fold
+     * @return the folded character
+     */
+    public char fold(char c)
+    {
+        if (ignoreDiacritics && c < BASE_LETTERS.length)
+        {
+            c = BASE_LETTERS[c];
+        }
+        if (ignoreCase)
+        {
+            c = Character.toLowerCase(Character.toUpperCase(c));
+        }
+        return c;
+    }
+
+    /**
+     * Folds every character of a text. The folded text has the same length
+     * as the text. If folding doesn't change the text, the same instance is
+     * returned, so that folded keys of texts that are already folded take no
+     * extra memory.
+     *
+     * @param text the text to fold, or null
+     * @return the folded text, or null if the text is null
+     */
+    public String fold(String text)
+    {
+        if (text == null || this == NONE)
+        {
+            return text;
+        }
+        for (int i = 0; i < text.length(); i++)
+        {
+            char c = text.charAt(i);
+            if (fold(c) != c)
+            {
+                char[] chars = text.toCharArray();
+                for (int j = i; j < chars.length; j++)
+                {
+                    chars[j] = fold(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return text;
+    }
+}
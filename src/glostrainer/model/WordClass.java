@@ -1,5 +1,8 @@
 package glostrainer.model;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Represents a class of word in the Swedish language. The definition of a word
  * calss is a bit vague and can be left for the user to interpret since we allow
@@ -84,6 +87,11 @@ public enum WordClass
     OTHER("Other");
 
     private final String[] optionalForms;
+    /**
+     * Maps each optional form name to its position in
+     * <code>optionalForms</code>.
+     */
+    private final Map<String, Integer> optionalFormIndices;
     private final String dictionaryFormTip;
     private final String stringRepresentation;
 
@@ -119,6 +127,11 @@ public enum WordClass
     {
         this.stringRepresentation = stringRepresentaiton;
         this.optionalForms = optionalForms;
+        this.optionalFormIndices = new HashMap<>();
+        for (int i = 0; i < optionalForms.length; i++)
+        {
+            this.optionalFormIndices.put(optionalForms[i], i);
+        }
         this.dictionaryFormTip = dictionaryFormTip;
     }
 
@@ -145,6 +158,20 @@ public enum WordClass
         return this.optionalForms;
     }
 
+    /**
+     * Retrieves the position of the given optional form in the array returned
+     * by <code>getOptionalForms()</code>.
+     *
+     * @param optionalForm the name of the optional form
+     * @return the position of the optional form, or -1 if this word class has
+     * no optional form with that name
+     */
+    public int getOptionalFormIndex(String optionalForm)
+    {
+        Integer index = this.optionalFormIndices.get(optionalForm);
+        return index != null ? index : -1;
+    }
+
     /**
      * Retrieves the name of this <code>WordClass</code> in a human-readable
      * format.
@@ -1,44 +1,104 @@
 package glostrainer.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * Represents a word entry from a user's perspective. A <code>WordEntry</code> object
  * has a word class, a Swedish Dictionary Form, a Definition (which could be entered
- * in any language), a <code>LinkedHashMap</code> that maps optional form name &gt;
- * user's entered value) and user notes.
+ * in any language), a mapping of optional form name &gt; user's entered value, and
+ * user notes.
+ *
+ * The optional forms are not stored in a map of their own. Instead, the value of
+ * each optional form is stored in an array at the position of the form in
+ * <code>WordClass.getOptionalForms()</code>, so the form names are shared by all
+ * words of the same class. <code>getOptionalForms()</code> returns a map view of
+ * this array. Forms that are not defined by the word class, e.g. forms that
+ * have been renamed since the word was saved, are kept in a separate map.
  * @author Robert Sebescen (pgrobban at gmail dot com)
  */
 public class WordEntry implements Serializable
 {
     /**
-     * 
+     *
      */
     private WordClass wordClass;
     /**
-     * 
+     *
      */
     private String swedishDictionaryForm;
     /**
-     * 
+     *
      */
     private String definition;
-    
+
+    /**
+     * The values of the optional forms of the word class, indexed like
+     * <code>wordClass.getOptionalForms()</code>. A null element means that the
+     * word doesn't have that form.
+     */
+    private transient String[] optionalFormValues;
+
     /**
-     * Use a <code>Map</code> to store the optional forms as a key-value pair where the
-     * key is the form name and the value is the value of that form for this word.
-     * We also need to preserve insertion order to make sure the mapping in the text
-     * fields are correct, so a <code>LinkedHashMap</code> should be good for this purpose.
+     * Optional forms whose names are not defined by the word class, in
+     * insertion order, or null if there are none.
      */
-    private LinkedHashMap<String, String>optionalForms;
+    private transient LinkedHashMap<String, String> extraOptionalForms;
+
     /**
      * Additional details that the user wants to store about the word.
      */
     private String userNotes;
-    
+
+    /**
+     * The identifier that the word list containing this word has given it, or
+     * <code>NO_ID</code> if the word is not in a list. Identifiers are not
+     * saved with the word.
+     */
+    private transient int id = NO_ID;
+
+    /**
+     * The searchable fields folded with the folding that was last asked for,
+     * or null if they haven't been asked for since the fields last changed.
+     * Volatile, since filter queries read the keys on a background thread.
+     */
+    private transient volatile SearchKeys searchKeys;
+
+    /**
+     * The identifier of a word that has not been added to a word list.
+     */
+    public static final int NO_ID = -1;
+
     private static final long serialVersionUID = 43L;
 
+    /**
+     * Earlier versions stored the optional forms in a <code>LinkedHashMap</code>
+     * field, and the serialized form of this class is kept the same so that
+     * old word list files can still be read.
+     */
+    private static final ObjectStreamField[] serialPersistentFields =
+    {
+        new ObjectStreamField("wordClass", WordClass.class),
+        new ObjectStreamField("swedishDictionaryForm", String.class),
+        new ObjectStreamField("definition", String.class),
+        new ObjectStreamField("optionalForms", LinkedHashMap.class),
+        new ObjectStreamField("userNotes", String.class)
+    };
+
+    private static final String[] NO_OPTIONAL_FORM_VALUES = new String[0];
+
     /**
      * Creates a word with the word class set to NOUN and all other fields
      * set to empty Strings.
@@ -47,49 +107,79 @@ public class WordEntry implements Serializable
     {
         this(WordClass.NOUN, "", "", new LinkedHashMap<>(), "");
     }
-    
+
     /**
      * Copy constructor.
      * @param copy the word to copy
      */
     public WordEntry(WordEntry copy)
     {
-        this(copy.wordClass, copy.swedishDictionaryForm, copy.definition, copy.optionalForms, copy.userNotes);
+        this.wordClass = copy.wordClass;
+        this.swedishDictionaryForm = copy.swedishDictionaryForm;
+        this.definition = copy.definition;
+        this.optionalFormValues = copy.optionalFormValues.length == 0
+                ? NO_OPTIONAL_FORM_VALUES : copy.optionalFormValues.clone();
+        if (copy.extraOptionalForms != null)
+        {
+            this.extraOptionalForms = new LinkedHashMap<>(copy.extraOptionalForms);
+        }
+        this.userNotes = copy.userNotes;
     }
-    
+
     /**
-     * Creates a new word with the given information.
+     * Creates a new word with the given information. The optional forms are
+     * copied from the given map.
      * @param wordClass
      * @param swedishDictionaryForm
      * @param definition
      * @param optionalForms
-     * @param userNotes 
+     * @param userNotes
      */
-    public WordEntry(WordClass wordClass, String swedishDictionaryForm, 
-            String definition, LinkedHashMap<String, String> optionalForms, String userNotes)
+    public WordEntry(WordClass wordClass, String swedishDictionaryForm,
+            String definition, Map<String, String> optionalForms, String userNotes)
     {
         this.wordClass = wordClass;
         this.swedishDictionaryForm = swedishDictionaryForm;
         this.definition = definition;
-        this.optionalForms = optionalForms;
         this.userNotes = userNotes;
+        setOptionalForms(optionalForms);
+    }
+
+    /**
+     * Returns the identifier of this word in the word list that contains it.
+     * Unlike the index of the word, the identifier stays the same when other
+     * words are added to or removed from the list, and when the word is
+     * replaced by an edited version of it. Copies of a word get no identifier
+     * until they are added to a list.
+     * @return the identifier, or <code>NO_ID</code> if the word is not in a
+     * list
+     * @see WordlistModel#getWordEntryById(int)
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    void setId(int id)
+    {
+        this.id = id;
     }
-    
+
     /**
      * Returns a human-readable <code>String</code> with all information entered
-     * about the word. The string contains the optional forms LinkedHashMap as
+     * about the word. The string contains the optional forms map as
      * seen by the software, as well as a concise version with the keys removed,
      * suitable for displaying to the user.
-     * @return 
+     * @return
      */
     @Override
     public String toString()
     {
-        return String.format("Word{Word class=%s, Swedish dictionary form=%s, Definition=%s, Optional forms=%s, Pretty optional forms=%s, userNotes=%s}", 
-                this.wordClass, 
-                this.swedishDictionaryForm, 
+        return String.format("Word{Word class=%s, Swedish dictionary form=%s, Definition=%s, Optional forms=%s, Pretty optional forms=%s, userNotes=%s}",
+                this.wordClass,
+                this.swedishDictionaryForm,
                 this.definition,
-                this.optionalForms.toString(),
+                this.getOptionalForms().toString(),
                 this.getOptionalFormsAsString(),
                 this.userNotes);
     }
@@ -104,12 +194,20 @@ public class WordEntry implements Serializable
     }
 
     /**
-     * Sets the word class of this word entry.
+     * Sets the word class of this word entry. The optional forms are kept;
+     * forms that the new word class doesn't define are kept under their names
+     * like any other form that is not defined by the word class.
      * @param wordClass the wordClass to set
      */
     public void setWordClass(WordClass wordClass)
     {
+        if (wordClass == this.wordClass)
+        {
+            return;
+        }
+        Map<String, String> optionalForms = new LinkedHashMap<>(getOptionalForms());
         this.wordClass = wordClass;
+        setOptionalForms(optionalForms);
     }
 
     /**
@@ -128,6 +226,7 @@ public class WordEntry implements Serializable
     public void setSwedishDictionaryForm(String swedishDictionaryForm)
     {
         this.swedishDictionaryForm = swedishDictionaryForm;
+        searchKeys = null;
     }
 
     /**
@@ -146,19 +245,114 @@ public class WordEntry implements Serializable
     public void setDefinition(String definition)
     {
         this.definition = definition;
+        searchKeys = null;
     }
 
     /**
-     * Returns a <code>LinkedHashMap</code> of the word's optional forms.
+     * Returns a map view of the word's optional forms.
      * The keys should be the optional forms belonging to the word's word class,
-     * and its values are the user-entered values for each optional form.
+     * and its values are the user-entered values for each optional form. The
+     * forms of the word class come first, in the order of
+     * <code>WordClass.getOptionalForms()</code>, followed by any other forms.
+     * Changes to the map are written through to this word entry. Since a
+     * missing form is stored as null, putting a null value removes the form.
      * @return the optionalForms
      */
-    public LinkedHashMap<String, String> getOptionalForms()
+    public Map<String, String> getOptionalForms()
+    {
+        return new OptionalFormsView();
+    }
+
+    /**
+     * Retrieves the value of a single optional form.
+     * @param optionalForm the name of the optional form
+     * @return the value of the form, or null if this word doesn't have it
+     */
+    public String getOptionalForm(String optionalForm)
     {
-        return optionalForms;
+        int index = wordClass.getOptionalFormIndex(optionalForm);
+        if (index >= 0)
+        {
+            return optionalFormValues[index];
+        }
+        return extraOptionalForms != null ? extraOptionalForms.get(optionalForm) : null;
     }
-    
+
+    /**
+     * Sets the value of a single optional form.
+     * @param optionalForm the name of the optional form
+     * @param value the value of the form, or null to remove the form
+     * @return the previous value of the form, or null if this word didn't have it
+     */
+    public String setOptionalForm(String optionalForm, String value)
+    {
+        searchKeys = null;
+        int index = wordClass.getOptionalFormIndex(optionalForm);
+        if (index >= 0)
+        {
+            String previous = optionalFormValues[index];
+            optionalFormValues[index] = value;
+            return previous;
+        }
+        if (value == null)
+        {
+            return extraOptionalForms != null ? extraOptionalForms.remove(optionalForm) : null;
+        }
+        if (extraOptionalForms == null)
+        {
+            extraOptionalForms = new LinkedHashMap<>();
+        }
+        return extraOptionalForms.put(optionalForm, value);
+    }
+
+    /**
+     * Returns the number of optional forms this word has, i.e. the size of
+     * the map returned by <code>getOptionalForms()</code>.
+     * @return the number of optional forms
+     */
+    public int getOptionalFormCount()
+    {
+        int count = extraOptionalForms != null ? extraOptionalForms.size() : 0;
+        for (String value : optionalFormValues)
+        {
+            if (value != null)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value of the n:th optional form this word has, in the
+     * iteration order of <code>getOptionalForms()</code>.
+     * @param n the position of the form, counting only the forms this word has
+     * @return the value of the form
+     * @throws IndexOutOfBoundsException if the word has n or fewer optional forms
+     */
+    public String getOptionalFormValue(int n)
+    {
+        int remaining = n;
+        for (String value : optionalFormValues)
+        {
+            if (value != null && remaining-- == 0)
+            {
+                return value;
+            }
+        }
+        if (extraOptionalForms != null)
+        {
+            for (String value : extraOptionalForms.values())
+            {
+                if (remaining-- == 0)
+                {
+                    return value;
+                }
+            }
+        }
+        throw new IndexOutOfBoundsException("Optional form " + n + " of " + getOptionalFormCount());
+    }
+
     /**
      * Returns a "prettified" version of the optional forms of this word as a String,
      * suitable for displaying to the user in a table.
@@ -172,30 +366,74 @@ public class WordEntry implements Serializable
     public String getOptionalFormsAsString()
     {
         StringBuilder output = new StringBuilder("");
-        this.optionalForms.values().stream().filter((s) -> (s != null && s.length() > 0)).forEach((s) ->
+        for (String s : optionalFormValues)
+        {
+            if (s != null && s.length() > 0)
+            {
+                output.append(s).append(", ");
+            }
+        }
+        if (extraOptionalForms != null)
         {
-            output.append(s).append(", ");
-        });
+            extraOptionalForms.values().stream().filter((s) -> (s != null && s.length() > 0)).forEach((s) ->
+            {
+                output.append(s).append(", ");
+            });
+        }
         // we want to remove the last comma and space, but we need to make sure there actually are
         if (output.length() > 1)
             output.setLength(output.length()-2);
         return output.toString();
     }
-    
+
+    /**
+     * Returns the searchable fields of this word folded with the given
+     * folding. The keys are cached until a field is changed or keys for
+     * another folding are asked for.
+     * @param folding the folding to apply
+     * @return the folded fields
+     */
+    SearchKeys getSearchKeys(TextFolding folding)
+    {
+        SearchKeys keys = searchKeys;
+        if (keys == null || keys.folding != folding)
+        {
+            keys = new SearchKeys(this, folding);
+            searchKeys = keys;
+        }
+        return keys;
+    }
+
     public String[] getOptionalFormsValuesAsArray()
     {
-        return this.optionalForms.values().toArray(new String[this.optionalForms.size()]);
+        String[] result = new String[getOptionalFormCount()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = getOptionalFormValue(i);
+        }
+        return result;
     }
 
     /**
-     * Sets the optional forms of this word entry.
+     * Sets the optional forms of this word entry. The values are copied from
+     * the given map, so later changes to the map don't affect this word entry.
      * @param optionalForms the optionalForms to set
      */
-    public void setOptionalForms(LinkedHashMap<String, String> optionalForms)
+    public void setOptionalForms(Map<String, String> optionalForms)
     {
-        this.optionalForms = optionalForms;
+        int slotCount = wordClass != null ? wordClass.getOptionalForms().length : 0;
+        this.optionalFormValues = slotCount == 0 ? NO_OPTIONAL_FORM_VALUES : new String[slotCount];
+        this.extraOptionalForms = null;
+        this.searchKeys = null;
+        if (optionalForms != null)
+        {
+            optionalForms.entrySet().stream().forEach((form) ->
+            {
+                setOptionalForm(form.getKey(), form.getValue());
+            });
+        }
     }
-    
+
     /**
      * Retrieves any user notes stored for this word entry.
      * @return the user notes for this word entry
@@ -213,5 +451,190 @@ public class WordEntry implements Serializable
     {
         this.userNotes = userNotes;
     }
-    
+
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("wordClass", wordClass);
+        fields.put("swedishDictionaryForm", swedishDictionaryForm);
+        fields.put("definition", definition);
+        fields.put("optionalForms", new LinkedHashMap<>(getOptionalForms()));
+        fields.put("userNotes", userNotes);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream.GetField fields = in.readFields();
+        wordClass = (WordClass) fields.get("wordClass", null);
+        swedishDictionaryForm = (String) fields.get("swedishDictionaryForm", null);
+        definition = (String) fields.get("definition", null);
+        userNotes = (String) fields.get("userNotes", null);
+        setOptionalForms((Map<String, String>) fields.get("optionalForms", null));
+        id = NO_ID;
+    }
+
+    /**
+     * The map returned by <code>getOptionalForms()</code>, which reads from and
+     * writes to the arrays of this word entry.
+     */
+    private class OptionalFormsView extends AbstractMap<String, String>
+    {
+
+        @Override
+        public int size()
+        {
+            return getOptionalFormCount();
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return key instanceof String && getOptionalForm((String) key) != null;
+        }
+
+        @Override
+        public String get(Object key)
+        {
+            return key instanceof String ? getOptionalForm((String) key) : null;
+        }
+
+        @Override
+        public String put(String key, String value)
+        {
+            return setOptionalForm(key, value);
+        }
+
+        @Override
+        public String remove(Object key)
+        {
+            return key instanceof String ? setOptionalForm((String) key, null) : null;
+        }
+
+        @Override
+        public void clear()
+        {
+            Arrays.fill(optionalFormValues, null);
+            extraOptionalForms = null;
+            searchKeys = null;
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet()
+        {
+            return new AbstractSet<Map.Entry<String, String>>()
+            {
+                @Override
+                public int size()
+                {
+                    return getOptionalFormCount();
+                }
+
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator()
+                {
+                    return new OptionalFormsIterator();
+                }
+            };
+        }
+    }
+
+    /**
+     * Iterates over the forms of the word class that this word has, and then
+     * over the other forms.
+     */
+    private class OptionalFormsIterator implements Iterator<Map.Entry<String, String>>
+    {
+
+        private final String[] names = wordClass.getOptionalForms();
+        private int nextIndex = -1;
+        private Iterator<Map.Entry<String, String>> extraForms;
+        private String lastReturned;
+
+        OptionalFormsIterator()
+        {
+            advance();
+        }
+
+        private void advance()
+        {
+            do
+            {
+                nextIndex++;
+            } while (nextIndex < optionalFormValues.length && optionalFormValues[nextIndex] == null);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            if (nextIndex < optionalFormValues.length)
+            {
+                return true;
+            }
+            if (extraForms == null)
+            {
+                extraForms = extraOptionalForms != null
+                        ? extraOptionalForms.entrySet().iterator()
+                        : Collections.<Map.Entry<String, String>>emptyIterator();
+            }
+            return extraForms.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, String> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            if (nextIndex < optionalFormValues.length)
+            {
+                lastReturned = names[nextIndex];
+                Map.Entry<String, String> entry = new FormEntry(lastReturned, optionalFormValues[nextIndex]);
+                advance();
+                return entry;
+            }
+            lastReturned = null;
+            return extraForms.next();
+        }
+
+        @Override
+        public void remove()
+        {
+            if (lastReturned != null)
+            {
+                setOptionalForm(lastReturned, null);
+                lastReturned = null;
+            } else if (extraForms != null)
+            {
+                extraForms.remove();
+            } else
+            {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    /**
+     * An entry for one of the forms of the word class, which writes through to
+     * the value array.
+     */
+    private class FormEntry extends AbstractMap.SimpleEntry<String, String>
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        FormEntry(String name, String value)
+        {
+            super(name, value);
+        }
+
+        @Override
+        public String setValue(String value)
+        {
+            setOptionalForm(getKey(), value);
+            return super.setValue(value);
+        }
+    }
 }
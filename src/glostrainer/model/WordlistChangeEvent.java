@@ -0,0 +1,241 @@
+package glostrainer.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+
+/**
+ * Describes a set of changes that have been made to a
+ * <code>WordlistModel</code>. The changes are listed in the order in which
+ * they were made, and the indices of each change refer to the list as it was
+ * after the previous changes had been made. Consecutive changes of the same
+ * kind to adjacent rows are merged into one change, so adding many words to
+ * the end of the list, or removing a block of words, is a single change.
+ *
+ * Each change also holds the identifiers of the words it concerns, which
+ * for removed words are the identifiers the words had before they were
+ * removed.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class WordlistChangeEvent extends EventObject
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Change> changes;
+
+    /**
+     * Creates a new event.
+     *
+     * @param source the list that has changed
+     * @param changes the changes, in the order in which they were made
+     */
+    public WordlistChangeEvent(WordlistModel source, List<Change> changes)
+    {
+        super(source);
+        this.changes = Collections.unmodifiableList(new ArrayList<>(changes));
+    }
+
+    @Override
+    public WordlistModel getSource()
+    {
+        return (WordlistModel) super.getSource();
+    }
+
+    /**
+     * @return the changes, in the order in which they were made
+     */
+    public List<Change> getChanges()
+    {
+        return changes;
+    }
+
+    /**
+     * @return the number of words that have been added in total
+     */
+    public int getInsertedCount()
+    {
+        return changes.stream().filter((c) -> c.getType() == Change.Type.INSERTED).mapToInt(Change::getSize).sum();
+    }
+
+    /**
+     * @return the number of words that have been removed in total
+     */
+    public int getRemovedCount()
+    {
+        return changes.stream().filter((c) -> c.getType() == Change.Type.REMOVED).mapToInt(Change::getSize).sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getName() + changes;
+    }
+
+    /**
+     * A range of rows that have been added, replaced or removed.
+     */
+    public static final class Change
+    {
+
+        /**
+         * What has happened to the rows of a change.
+         */
+        public enum Type
+        {
+
+            /**
+             * Words have been added at the indices of the change.
+             */
+            INSERTED,
+            /**
+             * The words at the indices of the change have been replaced.
+             */
+            UPDATED,
+            /**
+             * The words at the indices of the change have been removed.
+             */
+            REMOVED
+        }
+
+        private final Type type;
+        private int firstIndex;
+        private int[] ids;
+        private int size;
+
+        Change(Type type, int firstIndex, int[] ids)
+        {
+            this.type = type;
+            this.firstIndex = firstIndex;
+            this.ids = ids;
+            this.size = ids.length;
+        }
+
+        /**
+         * Merges the given change into this one if it is of the same type and
+         * the two touch, so that they can be described by one range.
+         *
+         * @return true if the change was merged
+         */
+        boolean merge(Change next)
+        {
+            if (next.type != type)
+            {
+                return false;
+            }
+            switch (type)
+            {
+                case INSERTED:
+                    if (next.firstIndex == firstIndex + size)
+                    {
+                        append(next.ids, next.size);
+                        return true;
+                    }
+                    if (next.firstIndex == firstIndex)
+                    {
+                        prepend(next.ids, next.size);
+                        return true;
+                    }
+                    return false;
+                case REMOVED:
+                    // the rows after a removed range move up to its first index
+                    if (next.firstIndex == firstIndex)
+                    {
+                        append(next.ids, next.size);
+                        return true;
+                    }
+                    if (next.firstIndex + next.size == firstIndex)
+                    {
+                        prepend(next.ids, next.size);
+                        firstIndex = next.firstIndex;
+                        return true;
+                    }
+                    return false;
+                default:
+                    if (next.size == 1 && next.firstIndex >= firstIndex && next.firstIndex < firstIndex + size)
+                    {
+                        return true;
+                    }
+                    if (next.firstIndex == firstIndex + size)
+                    {
+                        append(next.ids, next.size);
+                        return true;
+                    }
+                    return false;
+            }
+        }
+
+        private void append(int[] moreIds, int count)
+        {
+            if (size + count > ids.length)
+            {
+                ids = Arrays.copyOf(ids, Math.max(size + count, 2 * ids.length));
+            }
+            System.arraycopy(moreIds, 0, ids, size, count);
+            size += count;
+        }
+
+        private void prepend(int[] moreIds, int count)
+        {
+            int[] merged = new int[Math.max(size + count, 2 * ids.length)];
+            System.arraycopy(moreIds, 0, merged, 0, count);
+            System.arraycopy(ids, 0, merged, count, size);
+            ids = merged;
+            size += count;
+        }
+
+        /**
+         * @return what has happened to the rows
+         */
+        public Type getType()
+        {
+            return type;
+        }
+
+        /**
+         * @return the index of the first row of the change
+         */
+        public int getFirstIndex()
+        {
+            return firstIndex;
+        }
+
+        /**
+         * @return the index of the last row of the change
+         */
+        public int getLastIndex()
+        {
+            return firstIndex + size - 1;
+        }
+
+        /**
+         * @return the number of rows of the change
+         */
+        public int getSize()
+        {
+            return size;
+        }
+
+        /**
+         * @param i the position of the row within the change
+         * @return the identifier of the word in the row
+         */
+        public int getId(int i)
+        {
+            if (i < 0 || i >= size)
+            {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+            }
+            return ids[i];
+        }
+
+        @Override
+        public String toString()
+        {
+            return type + "[" + firstIndex + ".." + getLastIndex() + "]";
+        }
+    }
+}
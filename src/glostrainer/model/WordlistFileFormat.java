@@ -0,0 +1,196 @@
+package glostrainer.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Constants and low-level helpers for the binary <code>.gtl</code> file
+ * format. Version 1 of the format was simply an <code>ArrayList</code> of
+ * <code>WordEntry</code> objects written with Java serialization; those files
+ * are still readable through <code>WordlistModel.loadFromFile()</code>.
+ *
+ * A version 3 file has the following layout:
+ * <ul>
+ * <li>the magic bytes <code>GTLF</code> followed by a two byte version
+ * number,</li>
+ * <li>a string table with the names of the optional forms, which is seeded
+ * with the optional forms of every <code>WordClass</code> in declaration
+ * order,</li>
+ * <li>the number of word entries, and</li>
+ * <li>the word entries themselves. Every entry is written as its word class
+ * ordinal, the dictionary form, definition and user notes, and a list of
+ * (string table index, value) pairs for its optional forms,</li>
+ * <li>the offset table, which holds the position of every entry from the
+ * start of the file as an eight byte integer, and</li>
+ * <li>the position of the offset table as an eight byte integer.</li>
+ * </ul>
+ * The offset table lets <code>MappedWordlist</code> decode any entry without
+ * reading the ones before it. Version 2 files are the same, except that they
+ * have no offset table.
+ *
+ * All counts and indices are written as unsigned variable-length integers
+ * (seven bits per byte, least significant group first). Strings are written as
+ * their UTF-8 byte length plus one followed by the bytes, where a length of
+ * zero denotes <code>null</code>.
+ *
+ * Word classes are stored by ordinal, so new constants must only ever be
+ * appended to the end of <code>WordClass</code>.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+final class WordlistFileFormat
+{
+
+    /**
+     * The magic bytes that every file in the binary format starts with.
+     */
+    static final byte[] MAGIC =
+    {
+        'G', 'T', 'L', 'F'
+    };
+
+    /**
+     * The first two bytes of a stream written by an
+     * <code>ObjectOutputStream</code>, i.e. a version 1 file.
+     */
+    static final int LEGACY_STREAM_MAGIC = 0xACED;
+
+    /**
+     * The version written by this release of GlosTrainer.
+     */
+    static final int CURRENT_VERSION = 3;
+
+    /**
+     * The length of an entry of the offset table, and of the position of the
+     * table at the end of the file.
+     */
+    static final int OFFSET_LENGTH = 8;
+
+    private WordlistFileFormat()
+    {
+    }
+
+    /**
+     * Builds the initial string table, consisting of the optional form names of
+     * all word classes in declaration order. Duplicates are only included
+     * once.
+     *
+     * @return the optional form names known by this release
+     */
+    static List<String> getSchemaFormNames()
+    {
+        List<String> names = new ArrayList<>();
+        for (WordClass wc : WordClass.values())
+        {
+            for (String form : wc.getOptionalForms())
+            {
+                if (!names.contains(form))
+                {
+                    names.add(form);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Decodes a word entry.
+     *
+     * @param in the stream to read from, positioned at the start of the entry
+     * @param formNames the string table of the file
+     * @return the decoded word entry
+     * @throws IOException if the entry could not be read or is corrupt
+     */
+    static WordEntry readEntry(InputStream in, String[] formNames) throws IOException
+    {
+        int wordClassOrdinal = readVarInt(in);
+        if (wordClassOrdinal >= WordClass.values().length)
+        {
+            throw new IOException("Unknown word class " + wordClassOrdinal + " in word list file");
+        }
+        WordClass wordClass = WordClass.values()[wordClassOrdinal];
+        String dictionaryForm = readString(in);
+        String definition = readString(in);
+        String userNotes = readString(in);
+
+        WordEntry word = new WordEntry(wordClass, dictionaryForm, definition, null, userNotes);
+        int formCount = readVarInt(in);
+        for (int i = 0; i < formCount; i++)
+        {
+            int nameIndex = readVarInt(in);
+            if (nameIndex >= formNames.length)
+            {
+                throw new IOException("Optional form index " + nameIndex + " is out of range");
+            }
+            word.setOptionalForm(formNames[nameIndex], readString(in));
+        }
+        return word;
+    }
+
+    static void writeVarInt(OutputStream out, int value) throws IOException
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarInt(InputStream in) throws IOException
+    {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7)
+        {
+            int b = in.read();
+            if (b < 0)
+            {
+                throw new EOFException("Unexpected end of word list file");
+            }
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable-length integer in word list file");
+    }
+
+    static void writeString(OutputStream out, String s) throws IOException
+    {
+        if (s == null)
+        {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(InputStream in) throws IOException
+    {
+        int length = readVarInt(in) - 1;
+        if (length < 0)
+        {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length)
+        {
+            int n = in.read(bytes, read, length - read);
+            if (n < 0)
+            {
+                throw new EOFException("Unexpected end of word list file");
+            }
+            read += n;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,8 @@
 package glostrainer.model;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 /**
  * An abstract model for getting and setting word entries in a list-like manner.
  * The interface is supposed to resemble a CRUD (Create, Read, Update, Delete) one.
@@ -13,6 +16,12 @@ public interface WordlistInterface extends IModel
      * @param wordEntry the word entry to add
      */
     public void addWordEntry(WordEntry wordEntry);
+
+    /**
+     * Returns the number of word entries in this list.
+     * @return the word entry count
+     */
+    public int getEntryCount();
     
     /**
      * Retrieves the word at the given index. The concrete subclasses can
@@ -38,6 +47,53 @@ public interface WordlistInterface extends IModel
      * @param index the index to remove.
      */
     public abstract void removeWordEntryAtIndex(int index);
-    
-    
+
+    /**
+     * Adds the given word entries to the end of this list, in order. Lists
+     * that can add many words faster than one at a time should override this.
+     * @param words the word entries to add
+     */
+    public default void addWordEntries(List<WordEntry> words)
+    {
+        words.forEach(this::addWordEntry);
+    }
+
+    /**
+     * Replaces the words at the given indices with the given words, so that
+     * <code>indices[i]</code> is replaced with <code>words.get(i)</code>.
+     * Lists that can replace many words faster than one at a time should
+     * override this.
+     * @param indices the indices to replace at
+     * @param words the new words
+     * @throws IllegalArgumentException if there are not as many words as
+     * indices
+     */
+    public default void replaceWordEntriesAtIndices(int[] indices, List<WordEntry> words)
+    {
+        if (indices.length != words.size())
+        {
+            throw new IllegalArgumentException(indices.length + " indices but " + words.size() + " words");
+        }
+        for (int i = 0; i < indices.length; i++)
+        {
+            replaceWordEntryAtIndex(indices[i], words.get(i));
+        }
+    }
+
+    /**
+     * Removes the word entries at the given indices from the list. The
+     * indices refer to the list as it was before any of the words were
+     * removed, and may be given in any order. Lists that can remove many
+     * words faster than one at a time should override this.
+     * @param indices the indices to remove
+     */
+    public default void removeWordEntriesAtIndices(int[] indices)
+    {
+        int[] sortedIndices = IntStream.of(indices).sorted().distinct().toArray();
+        for (int i = sortedIndices.length - 1; i >= 0; i--)
+        {
+            removeWordEntryAtIndex(sortedIndices[i]);
+        }
+    }
+
 }
@@ -0,0 +1,579 @@
+package glostrainer.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the changes made to a word list since it was last
+ * written to its <code>.gtl</code> file (the snapshot). Instead of rewriting the
+ * whole snapshot every time the list is saved, only the changes made since the
+ * previous save are appended to the journal, which is kept next to the
+ * snapshot with the extension <code>.journal</code> added. When the list is
+ * opened, the changes in the journal are replayed on top of the snapshot.
+ *
+ * Once the journal has grown past a quarter of the size of the snapshot (but at
+ * least <code>MIN_COMPACTION_SIZE</code> bytes), it should be compacted: a new
+ * snapshot of the whole list is written and the journal is deleted. This can
+ * be done in the background with <code>compactInBackground()</code>.
+ *
+ * A journal file has the following layout:
+ * <ul>
+ * <li>the magic bytes <code>GTLJ</code> followed by a two byte version
+ * number,</li>
+ * <li>the length and last modification time of the snapshot that the journal
+ * belongs to, as eight byte integers, and</li>
+ * <li>the records. Every record is written as its length, the record itself
+ * and a four byte CRC-32 checksum of the record. A record starts with its
+ * operation, followed by the index of the affected entry for replace and
+ * remove operations and the entry itself for add and replace operations.
+ * Entries are written like in a <code>.gtl</code> file, except that the names
+ * of the optional forms are written out instead of indexing a string
+ * table.</li>
+ * </ul>
+ * If the snapshot has been changed since the journal was written, e.g. by an
+ * earlier version of GlosTrainer, the journal is ignored. A record that was
+ * only partly written, because the program was terminated while saving, is
+ * ignored as well, and is overwritten by the next save.
+ *
+ * The methods that read and write files are synchronized, so changes can be
+ * appended while a compaction is waiting to run or running.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class WordlistJournal
+{
+
+    /**
+     * The smallest journal, in bytes, that is compacted.
+     */
+    public static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+    private static final byte[] MAGIC =
+    {
+        'G', 'T', 'L', 'J'
+    };
+
+    private static final int CURRENT_VERSION = 1;
+
+    private static final int HEADER_LENGTH = MAGIC.length + 2 + 8 + 8;
+
+    /**
+     * Compactions of all journals run one after another on this thread.
+     */
+    private static final ExecutorService COMPACTION_EXECUTOR = Executors.newSingleThreadExecutor((Runnable r) ->
+    {
+        Thread thread = new Thread(r, "Word list journal compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File snapshotFile;
+    private final File journalFile;
+
+    /**
+     * The length and modification time of the snapshot when it was last
+     * written or read, which are used to tell if the journal still belongs to
+     * it. The length is -1 until the snapshot has been read or written, or
+     * if the journal can't be trusted, so nothing is appended to a journal
+     * without a snapshot.
+     */
+    private long snapshotLength;
+    private long snapshotModified;
+
+    /**
+     * The number of valid bytes in the journal file, or zero if the journal
+     * file has not been created yet.
+     */
+    private long journalLength;
+
+    /**
+     * Incremented every time the journal is changed, so that a compaction that
+     * has been overtaken by newer changes can tell that it is out of date.
+     */
+    private long modificationCount;
+
+    /**
+     * Creates a journal for the given snapshot file. No files are read or
+     * written until one of the other methods is invoked.
+     *
+     * @param snapshotFile the <code>.gtl</code> file that the journal belongs
+     * to
+     */
+    public WordlistJournal(File snapshotFile)
+    {
+        this.snapshotFile = snapshotFile.getAbsoluteFile();
+        this.journalFile = new File(this.snapshotFile.getPath() + ".journal");
+        this.snapshotLength = -1;
+    }
+
+    /**
+     * @return the <code>.gtl</code> file that this journal belongs to
+     */
+    public File getSnapshotFile()
+    {
+        return snapshotFile;
+    }
+
+    /**
+     * @return the journal file itself
+     */
+    public File getJournalFile()
+    {
+        return journalFile;
+    }
+
+    /**
+     * Reads the records of the journal file, if there is one that belongs to
+     * the current snapshot. Should be invoked after the snapshot has been
+     * opened and before it is read, and the returned records should then be
+     * replayed on the entries of the snapshot with <code>replay()</code>.
+     *
+     * @return the records in the journal, which is empty if there is no
+     * journal or it belongs to another snapshot
+     * @throws IOException if the journal could not be read
+     */
+    public synchronized List<Record> load() throws IOException
+    {
+        rememberSnapshot();
+        journalLength = 0;
+        modificationCount++;
+        if (!journalFile.exists())
+        {
+            return Collections.emptyList();
+        }
+
+        List<Record> records = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile), 1 << 16)))
+        {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            int version = in.readUnsignedShort();
+            if (!Arrays.equals(magic, MAGIC) || version != CURRENT_VERSION
+                    || in.readLong() != snapshotLength || in.readLong() != snapshotModified)
+            {
+                Logger.getLogger(WordlistJournal.class.getName()).log(Level.WARNING, "Ignoring journal {0}, which doesn''t belong to the word list file", journalFile);
+                return Collections.emptyList();
+            }
+            long validLength = HEADER_LENGTH;
+            CRC32 crc = new CRC32();
+            while (true)
+            {
+                int recordLength;
+                byte[] record;
+                try
+                {
+                    int firstByte = in.read();
+                    if (firstByte < 0)
+                    {
+                        break;
+                    }
+                    recordLength = readRecordLength(firstByte, in);
+                    if (recordLength > journalFile.length() - validLength)
+                    {
+                        throw new EOFException("Truncated record");
+                    }
+                    record = new byte[recordLength];
+                    in.readFully(record);
+                    crc.reset();
+                    crc.update(record, 0, record.length);
+                    if (in.readInt() != (int) crc.getValue())
+                    {
+                        throw new IOException("Checksum mismatch");
+                    }
+                } catch (IOException ex)
+                {
+                    Logger.getLogger(WordlistJournal.class.getName()).log(Level.WARNING, "Ignoring incomplete record at the end of journal {0}", journalFile);
+                    break;
+                }
+                records.add(Record.decode(record));
+                validLength += varIntLength(recordLength) + recordLength + 4;
+            }
+            journalLength = validLength;
+        } catch (EOFException ex)
+        {
+            Logger.getLogger(WordlistJournal.class.getName()).log(Level.WARNING, "Ignoring journal {0}, which has an incomplete header", journalFile);
+            return Collections.emptyList();
+        }
+        return records;
+    }
+
+    /**
+     * Applies the given journal records to the given entries, in order.
+     *
+     * @param records the records to replay
+     * @param words the entries of the snapshot, which are modified in place
+     * @throws IOException if a record refers to an entry that doesn't exist
+     */
+    public static void replay(List<Record> records, List<WordEntry> words) throws IOException
+    {
+        for (Record record : records)
+        {
+            if (record.getIndex() >= words.size())
+            {
+                throw new IOException("Journal record refers to entry " + record.getIndex() + " of " + words.size());
+            }
+            switch (record.getOperation())
+            {
+                case ADD:
+                    words.add(record.getWord());
+                    break;
+                case REPLACE:
+                    words.set(record.getIndex(), record.getWord());
+                    break;
+                case REMOVE:
+                    words.remove(record.getIndex());
+                    break;
+                case CLEAR:
+                    words.clear();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Appends the given records to the journal file, creating it if needed,
+     * and forces them to disk.
+     * Nothing is appended if the snapshot has not been read or written by this
+     * journal yet, or if the snapshot or journal has been changed by someone
+     * else since, in which case a new snapshot should be written instead.
+     *
+     * @param records the records to append
+     * @return true if the records were appended, false if the journal is out
+     * of date
+     * @throws IOException if the journal could not be written
+     */
+    public synchronized boolean append(List<Record> records) throws IOException
+    {
+        if (!isCurrent())
+        {
+            return false;
+        }
+        if (records.isEmpty())
+        {
+            return true;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (journalLength == 0)
+        {
+            writeHeader(new DataOutputStream(bytes));
+        }
+        CRC32 crc = new CRC32();
+        for (Record record : records)
+        {
+            byte[] encoded = record.encode();
+            crc.reset();
+            crc.update(encoded, 0, encoded.length);
+            WordlistFileFormat.writeVarInt(bytes, encoded.length);
+            bytes.write(encoded);
+            new DataOutputStream(bytes).writeInt((int) crc.getValue());
+        }
+
+        modificationCount++;
+        try (RandomAccessFile out = new RandomAccessFile(journalFile, "rw"))
+        {
+            // drops whatever is left of an incomplete record, or of a journal
+            // that belonged to another snapshot
+            out.setLength(journalLength);
+            out.seek(journalLength);
+            out.write(bytes.toByteArray());
+            out.getFD().sync();
+        } catch (IOException ex)
+        {
+            // the journal file may have been damaged, so it can't be trusted
+            // until a new snapshot has been written
+            snapshotLength = -1;
+            throw ex;
+        }
+        journalLength += bytes.size();
+        return true;
+    }
+
+    /**
+     * @return true if the journal has grown large enough to be compacted
+     */
+    public synchronized boolean needsCompaction()
+    {
+        return journalLength > Math.max(MIN_COMPACTION_SIZE, snapshotLength / 4);
+    }
+
+    /**
+     * Writes the given entries to the snapshot file and deletes the journal.
+     * The snapshot is replaced atomically, so if writing fails, the old
+     * snapshot and journal are left intact.
+     *
+     * @param words all entries of the list
+     * @throws IOException if the snapshot could not be written
+     */
+    public synchronized void compact(List<WordEntry> words) throws IOException
+    {
+        Logger.getLogger(WordlistJournal.class.getName()).log(Level.FINE, "Writing {0} entries to {1}", new Object[]
+        {
+            words.size(), snapshotFile
+        });
+        try (AtomicFileOutputStream out = new AtomicFileOutputStream(snapshotFile))
+        {
+            WordlistWriter.write(out, words);
+            out.commit();
+        }
+        snapshotWritten();
+    }
+
+    /**
+     * Compacts the journal on a background thread, unless more changes have
+     * been appended or a new snapshot has been written by the time the
+     * compaction starts. Failures are logged, and leave the snapshot and
+     * journal to be compacted by a later save.
+     *
+     * @param words all entries of the list, which must not be modified
+     * afterwards. They must be exactly the entries of the snapshot with all
+     * changes in the journal so far applied.
+     */
+    public synchronized void compactInBackground(List<WordEntry> words)
+    {
+        long expectedModificationCount = modificationCount;
+        COMPACTION_EXECUTOR.submit(() ->
+        {
+            synchronized (this)
+            {
+                if (modificationCount != expectedModificationCount)
+                {
+                    return;
+                }
+                try
+                {
+                    compact(words);
+                } catch (IOException | RuntimeException ex)
+                {
+                    Logger.getLogger(WordlistJournal.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Must be invoked after a new snapshot has been written to the snapshot
+     * file by someone else than this journal. Deletes the journal file, since
+     * its changes are part of the snapshot now.
+     *
+     * @throws IOException if the journal file could not be deleted
+     */
+    public synchronized void snapshotWritten() throws IOException
+    {
+        modificationCount++;
+        Files.deleteIfExists(journalFile.toPath());
+        journalLength = 0;
+        rememberSnapshot();
+    }
+
+    private boolean isCurrent()
+    {
+        return snapshotLength >= 0
+                && snapshotFile.length() == snapshotLength
+                && snapshotFile.lastModified() == snapshotModified
+                && (journalLength == 0 || journalFile.length() >= journalLength);
+    }
+
+    private void rememberSnapshot()
+    {
+        snapshotLength = snapshotFile.length();
+        snapshotModified = snapshotFile.lastModified();
+    }
+
+    private void writeHeader(DataOutputStream out) throws IOException
+    {
+        out.write(MAGIC);
+        out.writeShort(CURRENT_VERSION);
+        out.writeLong(snapshotLength);
+        out.writeLong(snapshotModified);
+    }
+
+    private static int readRecordLength(int firstByte, InputStream in) throws IOException
+    {
+        if ((firstByte & 0x80) == 0)
+        {
+            return firstByte;
+        }
+        return (firstByte & 0x7F) | (WordlistFileFormat.readVarInt(in) << 7);
+    }
+
+    private static int varIntLength(int value)
+    {
+        int length = 1;
+        while ((value & ~0x7F) != 0)
+        {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * A single change to a word list.
+     */
+    public static final class Record
+    {
+
+        /**
+         * The kinds of changes, which correspond to the methods of
+         * <code>WordlistModel</code> that change the list. Stored by ordinal,
+         * so new constants must only ever be appended.
+         */
+        public enum Operation
+        {
+
+            ADD, REPLACE, REMOVE, CLEAR
+        }
+
+        private final Operation operation;
+        private final int index;
+        private final WordEntry word;
+
+        private Record(Operation operation, int index, WordEntry word)
+        {
+            this.operation = operation;
+            this.index = index;
+            this.word = word;
+        }
+
+        static Record add(WordEntry word)
+        {
+            return new Record(Operation.ADD, -1, word);
+        }
+
+        static Record replace(int index, WordEntry word)
+        {
+            return new Record(Operation.REPLACE, index, word);
+        }
+
+        static Record remove(int index)
+        {
+            return new Record(Operation.REMOVE, index, null);
+        }
+
+        static Record clear()
+        {
+            return new Record(Operation.CLEAR, -1, null);
+        }
+
+        /**
+         * @return the kind of change
+         */
+        public Operation getOperation()
+        {
+            return operation;
+        }
+
+        /**
+         * @return the index of the replaced or removed entry, or -1 for other
+         * operations
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * @return the added or replacing entry, or null for other operations
+         */
+        public WordEntry getWord()
+        {
+            return word;
+        }
+
+        private byte[] encode() throws IOException
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(operation.ordinal());
+            if (index >= 0)
+            {
+                WordlistFileFormat.writeVarInt(out, index);
+            }
+            if (word != null)
+            {
+                writeWord(out, word);
+            }
+            return out.toByteArray();
+        }
+
+        private static Record decode(byte[] record) throws IOException
+        {
+            InputStream in = new ByteArrayInputStream(record);
+            int operationOrdinal = in.read();
+            if (operationOrdinal < 0 || operationOrdinal >= Operation.values().length)
+            {
+                throw new IOException("Unknown journal operation " + operationOrdinal);
+            }
+            switch (Operation.values()[operationOrdinal])
+            {
+                case ADD:
+                    return add(readWord(in));
+                case REPLACE:
+                    int index = WordlistFileFormat.readVarInt(in);
+                    return replace(index, readWord(in));
+                case REMOVE:
+                    return remove(WordlistFileFormat.readVarInt(in));
+                default:
+                    return clear();
+            }
+        }
+
+        private static void writeWord(OutputStream out, WordEntry word) throws IOException
+        {
+            WordlistFileFormat.writeVarInt(out, word.getWordClass().ordinal());
+            WordlistFileFormat.writeString(out, word.getSwedishDictionaryForm());
+            WordlistFileFormat.writeString(out, word.getDefinition());
+            WordlistFileFormat.writeString(out, word.getUserNotes());
+            Map<String, String> optionalForms = word.getOptionalForms();
+            WordlistFileFormat.writeVarInt(out, optionalForms.size());
+            for (Map.Entry<String, String> form : optionalForms.entrySet())
+            {
+                WordlistFileFormat.writeString(out, form.getKey());
+                WordlistFileFormat.writeString(out, form.getValue());
+            }
+        }
+
+        private static WordEntry readWord(InputStream in) throws IOException
+        {
+            int wordClassOrdinal = WordlistFileFormat.readVarInt(in);
+            if (wordClassOrdinal >= WordClass.values().length)
+            {
+                throw new IOException("Unknown word class " + wordClassOrdinal + " in journal");
+            }
+            WordClass wordClass = WordClass.values()[wordClassOrdinal];
+            String dictionaryForm = WordlistFileFormat.readString(in);
+            String definition = WordlistFileFormat.readString(in);
+            String userNotes = WordlistFileFormat.readString(in);
+
+            WordEntry word = new WordEntry(wordClass, dictionaryForm, definition, null, userNotes);
+            int formCount = WordlistFileFormat.readVarInt(in);
+            for (int i = 0; i < formCount; i++)
+            {
+                String name = WordlistFileFormat.readString(in).intern();
+                word.setOptionalForm(name, WordlistFileFormat.readString(in));
+            }
+            return word;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package glostrainer.model;
+
+import java.util.EventListener;
+
+/**
+ * Listens to changes of a <code>WordlistModel</code>.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public interface WordlistListener extends EventListener
+{
+
+    /**
+     * Invoked on the Event Dispatch Thread after the list has changed, with
+     * all changes that were made to the list since the previous notification.
+     *
+     * @param e the changes
+     */
+    public void wordlistChanged(WordlistChangeEvent e);
+}
@@ -0,0 +1,413 @@
+package glostrainer.model;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts the operations on word lists and measures how long they take, and
+ * traces them for the categories that tracing has been turned on for.
+ *
+ * Measuring is turned off unless the system property
+ * <code>glostrainer.metrics</code> is <code>true</code>, or it is turned on
+ * over JMX. While it is turned off, an operation only reads a flag. While it
+ * is turned on, an operation reads the clock twice and increments a few
+ * <code>LongAdder</code>s, so operations on many threads don't contend. The
+ * durations are kept in histograms with a bucket for each power of two
+ * nanoseconds, from which the percentiles are estimated.
+ *
+ * Every operation is a tracing category with a logger named
+ * <code>glostrainer.trace.</code> followed by the lower-case name of the
+ * operation, e.g. <code>glostrainer.trace.remove</code>. The operations are
+ * traced at level <code>FINE</code>, so tracing a category is turned on by
+ * setting the level of its logger to <code>FINE</code> or lower, for example
+ * in the <code>logging.properties</code> file. Callers check
+ * <code>isTracing()</code> before building a trace message.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public final class WordlistMetrics
+{
+
+    /**
+     * The name that the statistics are registered with in the platform MBean
+     * server.
+     */
+    public static final String OBJECT_NAME = "glostrainer:type=WordlistMetrics";
+
+    /**
+     * The operations that are measured.
+     */
+    public enum Operation
+    {
+
+        /**
+         * Adding words to a list.
+         */
+        ADD,
+        /**
+         * Getting a word from a list by index.
+         */
+        GET,
+        /**
+         * Replacing words in a list.
+         */
+        REPLACE,
+        /**
+         * Removing words from a list.
+         */
+        REMOVE,
+        /**
+         * Clearing a list.
+         */
+        CLEAR,
+        /**
+         * Loading a list from a file.
+         */
+        LOAD,
+        /**
+         * Saving a list to a file.
+         */
+        SAVE;
+
+        /**
+         * Held here so that the logger, and the level it has been given, is
+         * not garbage collected.
+         */
+        private final Logger traceLogger = Logger.getLogger("glostrainer.trace." + name().toLowerCase());
+        private final Histogram histogram = new Histogram();
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("glostrainer.metrics");
+
+    private WordlistMetrics()
+    {
+    }
+
+    /**
+     * Starts measuring an operation.
+     *
+     * @return the time the operation started, to be passed to
+     * <code>record()</code>, or 0 if measuring is turned off
+     */
+    public static long start()
+    {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records an operation on one word that has finished.
+     *
+     * @param operation the operation
+     * @param start the value that <code>start()</code> returned when the
+     * operation started
+     */
+    public static void record(Operation operation, long start)
+    {
+        record(operation, start, 1);
+    }
+
+    /**
+     * Records an operation that has finished.
+     *
+     * @param operation the operation
+     * @param start the value that <code>start()</code> returned when the
+     * operation started
+     * @param wordCount the number of words that the operation concerned
+     */
+    public static void record(Operation operation, long start, int wordCount)
+    {
+        if (start != 0L)
+        {
+            operation.histogram.add(System.nanoTime() - start, wordCount);
+        }
+    }
+
+    /**
+     * @param operation the operation
+     * @return true if the operation is traced
+     */
+    public static boolean isTracing(Operation operation)
+    {
+        return operation.traceLogger.isLoggable(Level.FINE);
+    }
+
+    /**
+     * Traces an operation. Should only be invoked if
+     * <code>isTracing()</code> returns true for the operation.
+     *
+     * @param operation the operation
+     * @param message the message, in the format of <code>Logger.log()</code>
+     * @param parameters the parameters of the message
+     */
+    public static void trace(Operation operation, String message, Object... parameters)
+    {
+        operation.traceLogger.log(Level.FINE, message, parameters);
+    }
+
+    /**
+     * @return true if operations are being measured
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops measuring operations.
+     *
+     * @param enabled true to measure operations
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        WordlistMetrics.enabled = enabled;
+    }
+
+    /**
+     * @param operation the operation
+     * @return the statistics of the operation collected so far
+     */
+    public static OperationStatistics getStatistics(Operation operation)
+    {
+        return new OperationStatistics(operation);
+    }
+
+    /**
+     * Forgets the statistics collected so far.
+     */
+    public static void reset()
+    {
+        for (Operation operation : Operation.values())
+        {
+            operation.histogram.reset();
+        }
+    }
+
+    /**
+     * Registers the statistics with the platform MBean server, so that they
+     * can be inspected and measuring can be turned on with e.g. JConsole.
+     * Failures are logged and otherwise ignored.
+     */
+    public static void registerMBean()
+    {
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBean(), new ObjectName(OBJECT_NAME));
+        } catch (JMException ex)
+        {
+            Logger.getLogger(WordlistMetrics.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Durations in buckets of powers of two nanoseconds; bucket <i>i</i>
+     * holds the durations <i>d</i> with <code>2^(i-1) &lt;= d &lt; 2^i</code>.
+     */
+    private static final class Histogram
+    {
+
+        private static final int BUCKET_COUNT = 64;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder wordCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+        private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+        Histogram()
+        {
+            for (int i = 0; i < BUCKET_COUNT; i++)
+            {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void add(long nanos, int words)
+        {
+            nanos = Math.max(nanos, 0L);
+            count.increment();
+            wordCount.add(words);
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets[BUCKET_COUNT - Long.numberOfLeadingZeros(nanos)].increment();
+        }
+
+        /**
+         * Estimates the given percentile as the upper bound of the bucket
+         * that it falls in.
+         */
+        long getPercentileNanos(long[] counts, long total, double percentile)
+        {
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++)
+            {
+                seen += counts[i];
+                if (seen >= rank && seen > 0)
+                {
+                    return Math.min((i == 0) ? 0L : (1L << i) - 1, maxNanos.get());
+                }
+            }
+            return 0L;
+        }
+
+        void reset()
+        {
+            count.reset();
+            wordCount.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (LongAdder bucket : buckets)
+            {
+                bucket.reset();
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the statistics of an operation. Since the statistics are
+     * collected concurrently, the values may be off by the operations that
+     * finished while the snapshot was taken.
+     */
+    public static final class OperationStatistics
+    {
+
+        private final String name;
+        private final long count;
+        private final long wordCount;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long medianNanos;
+        private final long ninetyNinthPercentileNanos;
+
+        private OperationStatistics(Operation operation)
+        {
+            Histogram histogram = operation.histogram;
+            long[] counts = new long[Histogram.BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++)
+            {
+                counts[i] = histogram.buckets[i].sum();
+                total += counts[i];
+            }
+            name = operation.name();
+            count = histogram.count.sum();
+            wordCount = histogram.wordCount.sum();
+            totalNanos = histogram.totalNanos.sum();
+            maxNanos = histogram.maxNanos.get();
+            medianNanos = histogram.getPercentileNanos(counts, total, 50);
+            ninetyNinthPercentileNanos = histogram.getPercentileNanos(counts, total, 99);
+        }
+
+        /**
+         * @return the name of the operation
+         */
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * @return the number of times the operation has been performed
+         */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /**
+         * @return the number of words that the operations concerned
+         */
+        public long getWordCount()
+        {
+            return wordCount;
+        }
+
+        /**
+         * @return the total duration of the operations in nanoseconds
+         */
+        public long getTotalNanos()
+        {
+            return totalNanos;
+        }
+
+        /**
+         * @return the mean duration of the operations in nanoseconds
+         */
+        public long getMeanNanos()
+        {
+            return (count == 0) ? 0L : totalNanos / count;
+        }
+
+        /**
+         * @return the longest duration of an operation in nanoseconds
+         */
+        public long getMaxNanos()
+        {
+            return maxNanos;
+        }
+
+        /**
+         * @return an estimate of the median duration in nanoseconds
+         */
+        public long getMedianNanos()
+        {
+            return medianNanos;
+        }
+
+        /**
+         * @return an estimate of the 99th percentile of the duration in
+         * nanoseconds
+         */
+        public long getNinetyNinthPercentileNanos()
+        {
+            return ninetyNinthPercentileNanos;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s: %d operations on %d words, mean %d ns, median %d ns, p99 %d ns, max %d ns",
+                    name, count, wordCount, getMeanNanos(), medianNanos, ninetyNinthPercentileNanos, maxNanos);
+        }
+    }
+
+    private static final class MXBean implements WordlistMetricsMXBean
+    {
+
+        @Override
+        public boolean isEnabled()
+        {
+            return WordlistMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled)
+        {
+            WordlistMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public List<OperationStatistics> getOperations()
+        {
+            List<OperationStatistics> operations = new ArrayList<>();
+            for (Operation operation : Operation.values())
+            {
+                operations.add(getStatistics(operation));
+            }
+            return operations;
+        }
+
+        @Override
+        public void reset()
+        {
+            WordlistMetrics.reset();
+        }
+    }
+}
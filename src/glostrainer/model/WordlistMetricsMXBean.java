@@ -0,0 +1,37 @@
+package glostrainer.model;
+
+import java.util.List;
+
+/**
+ * The management interface of <code>WordlistMetrics</code>, which is
+ * registered with the platform MBean server as
+ * <code>glostrainer:type=WordlistMetrics</code>.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public interface WordlistMetricsMXBean
+{
+
+    /**
+     * @return true if operations are being measured
+     */
+    public boolean isEnabled();
+
+    /**
+     * Starts or stops measuring operations. The statistics collected so far
+     * are kept.
+     *
+     * @param enabled true to measure operations
+     */
+    public void setEnabled(boolean enabled);
+
+    /**
+     * @return the statistics of each operation
+     */
+    public List<WordlistMetrics.OperationStatistics> getOperations();
+
+    /**
+     * Forgets the statistics collected so far.
+     */
+    public void reset();
+}
@@ -1,16 +1,15 @@
 package glostrainer.model;
 
+import glostrainer.model.WordlistMetrics.Operation;
+import java.awt.EventQueue;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -18,6 +17,16 @@ import java.util.stream.Stream;
  * to the CRUD-like interface, the class also defines methods for loading the
  * list from and saving the list to files.
  *
+ * Every word in the list is given an identifier (see
+ * <code>WordEntry.getId()</code>) that stays the same while the word is in the
+ * list, so that other parts of the program can refer to a word without
+ * depending on its index. The identifiers key the views of the list, such as
+ * the selected forms of the quiz table, and the index of a word can be looked
+ * up by its identifier in constant time. Words are still removed by index,
+ * one or many at a time, in a single pass over the rest of the list (see
+ * <code>removeWordEntriesAtIndices()</code>). A word can only be in one list,
+ * at one position, at a time.
+ *
  * @author Robert Sebescen (pgrobban at gmail dot com)
  */
 public class WordlistModel implements WordlistInterface, Serializable
@@ -27,12 +36,57 @@ public class WordlistModel implements WordlistInterface, Serializable
 
     private List<WordEntry> wordlist;
 
+    /**
+     * The index of each word by identifier, or -1 for identifiers of words
+     * that have been removed. Identifiers are handed out in increasing order,
+     * and only reused once the list has been cleared.
+     */
+    private transient int[] indicesById;
+    private transient int nextId;
+
+    /**
+     * Trigram index over the searchable fields of the words in this list,
+     * kept up to date by the methods that change the list.
+     */
+    private transient WordlistSearchIndex searchIndex;
+
+    /**
+     * The journal of the file that this list was last loaded from or saved
+     * to, or null if the list isn't tied to a file.
+     */
+    private transient WordlistJournal journal;
+
+    /**
+     * The changes made since the list was last loaded or saved, which will be
+     * appended to the journal by the next save. Null if there is no journal.
+     */
+    private transient List<WordlistJournal.Record> unsavedChanges;
+
+    /**
+     * Incremented by every change to the list. The list has unsaved changes
+     * if this differs from <code>savedGeneration</code>, the generation that
+     * was last loaded or saved.
+     */
+    private transient long generation;
+    private transient long savedGeneration;
+
+    private transient List<WordlistListener> listeners;
+
+    /**
+     * The changes made since the listeners were last notified, or null if no
+     * notification is pending.
+     */
+    private transient List<WordlistChangeEvent.Change> pendingChanges;
+
     /**
      * Crreates a new WordlistModel.
      */
     public WordlistModel()
     {
         wordlist = new ArrayList<>();
+        searchIndex = new WordlistSearchIndex();
+        indicesById = new int[16];
+        listeners = new ArrayList<>();
     }
 
     /**
@@ -43,9 +97,18 @@ public class WordlistModel implements WordlistInterface, Serializable
     @Override
     public void addWordEntry(WordEntry word)
     {
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Adding word to list: {0}", word);
+        long start = WordlistMetrics.start();
+        int index = getEntryCount();
+        assignId(word, wordlist.size());
         wordlist.add(word);
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Word list now has {0} entries", getEntryCount());
+        searchIndex.add(word);
+        recordChange(WordlistJournal.Record.add(word));
+        fireChange(WordlistChangeEvent.Change.Type.INSERTED, index, word.getId());
+        WordlistMetrics.record(Operation.ADD, start);
+        if (WordlistMetrics.isTracing(Operation.ADD))
+        {
+            WordlistMetrics.trace(Operation.ADD, "Added word at index {0}: {1}", index, word);
+        }
     }
 
     /**
@@ -53,6 +116,7 @@ public class WordlistModel implements WordlistInterface, Serializable
      *
      * @return the word entry count
      */
+    @Override
     public int getEntryCount()
     {
         return wordlist.size();
@@ -69,11 +133,13 @@ public class WordlistModel implements WordlistInterface, Serializable
     @Override
     public WordEntry getWordEntryAtIndex(int index)
     {
+        long start = WordlistMetrics.start();
         WordEntry word = wordlist.get(index);
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Getting word from index {0}: {1}", new Object[]
+        WordlistMetrics.record(Operation.GET, start);
+        if (WordlistMetrics.isTracing(Operation.GET))
         {
-            index, word
-        });
+            WordlistMetrics.trace(Operation.GET, "Got word at index {0}: {1}", index, word);
+        }
         return word;
     }
 
@@ -88,6 +154,31 @@ public class WordlistModel implements WordlistInterface, Serializable
         return wordlist.stream();
     }
 
+    /**
+     * Returns the word with the given identifier.
+     *
+     * @param id the identifier of the word
+     * @return the word, or null if there is no word with that identifier in
+     * this list
+     */
+    public WordEntry getWordEntryById(int id)
+    {
+        int index = getIndexOfId(id);
+        return (index < 0) ? null : wordlist.get(index);
+    }
+
+    /**
+     * Returns the current index of the word with the given identifier.
+     *
+     * @param id the identifier of the word
+     * @return the index of the word, or -1 if there is no word with that
+     * identifier in this list
+     */
+    public int getIndexOfId(int id)
+    {
+        return (id >= 0 && id < nextId) ? indicesById[id] : -1;
+    }
+
     /**
      * Replaces the word entry at the specified position in this list with the
      * given word entry..
@@ -100,17 +191,25 @@ public class WordlistModel implements WordlistInterface, Serializable
     @Override
     public void replaceWordEntryAtIndex(int index, WordEntry word)
     {
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Replacing word at index {0}", index);
-        wordlist.set(index, word);
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Replacing word at index {0} is {1}: ", new Object[]
+        long start = WordlistMetrics.start();
+        WordEntry replacedWord = wordlist.set(index, word);
+        word.setId(replacedWord.getId());
+        replacedWord.setId(WordEntry.NO_ID);
+        searchIndex.remove(replacedWord);
+        searchIndex.add(word);
+        recordChange(WordlistJournal.Record.replace(index, word));
+        fireChange(WordlistChangeEvent.Change.Type.UPDATED, index, word.getId());
+        WordlistMetrics.record(Operation.REPLACE, start);
+        if (WordlistMetrics.isTracing(Operation.REPLACE))
         {
-            index, word
-        });
+            WordlistMetrics.trace(Operation.REPLACE, "Replaced word at index {0} with {1}", index, word);
+        }
     }
 
     /**
      * Removes the word entry at the given position in this list. Shifts any
-     * subsequent elements to the left (subtracts one from their indices).
+     * subsequent elements to the left (subtracts one from their indices), in
+     * the same single pass as <code>removeWordEntriesAtIndices()</code>.
      *
      * @param index the index of the element to be removed
      * @throws IndexOutOfBoundsException if the index is out of range
@@ -119,60 +218,538 @@ public class WordlistModel implements WordlistInterface, Serializable
     @Override
     public void removeWordEntryAtIndex(int index)
     {
-        WordEntry wordToRemove = wordlist.remove(index);
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Deleting word at index {0}, which is {1}: ", new Object[]
+        removeWordEntriesAtIndices(new int[]
         {
-            index, wordToRemove
+            index
         });
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Word list now has {0} entries left ", this.getEntryCount());
+    }
+
+    /**
+     * Appends the given word entries to the end of this list, in order.
+     *
+     * @param words the word entries to add
+     */
+    @Override
+    public void addWordEntries(List<WordEntry> words)
+    {
+        long start = WordlistMetrics.start();
+        int index = getEntryCount();
+        int[] ids = new int[words.size()];
+        for (int i = 0; i < ids.length; i++)
+        {
+            WordEntry word = words.get(i);
+            assignId(word, wordlist.size());
+            wordlist.add(word);
+            searchIndex.add(word);
+            recordChange(WordlistJournal.Record.add(word));
+            ids[i] = word.getId();
+        }
+        fireChange(WordlistChangeEvent.Change.Type.INSERTED, index, ids);
+        WordlistMetrics.record(Operation.ADD, start, ids.length);
+        if (WordlistMetrics.isTracing(Operation.ADD))
+        {
+            WordlistMetrics.trace(Operation.ADD, "Added {0} words at index {1}", ids.length, index);
+        }
+    }
+
+    /**
+     * Replaces the word entries at the given positions in this list, so that
+     * <code>indices[i]</code> is replaced with <code>words.get(i)</code>.
+     *
+     * @param indices the indices of the elements to replace
+     * @param words the word entries to be stored at the given positions
+     * @throws IllegalArgumentException if there are not as many words as
+     * indices
+     * @throws IndexOutOfBoundsException if an index is out of range
+     * <code>(index &lt; 0 || index &gt;= getEntryCount())</code>, in which
+     * case the words before it have been replaced
+     */
+    @Override
+    public void replaceWordEntriesAtIndices(int[] indices, List<WordEntry> words)
+    {
+        if (indices.length != words.size())
+        {
+            throw new IllegalArgumentException(indices.length + " indices but " + words.size() + " words");
+        }
+        long start = WordlistMetrics.start();
+        for (int i = 0; i < indices.length; i++)
+        {
+            WordEntry word = words.get(i);
+            WordEntry replacedWord = wordlist.set(indices[i], word);
+            word.setId(replacedWord.getId());
+            replacedWord.setId(WordEntry.NO_ID);
+            searchIndex.remove(replacedWord);
+            searchIndex.add(word);
+            recordChange(WordlistJournal.Record.replace(indices[i], word));
+            fireChange(WordlistChangeEvent.Change.Type.UPDATED, indices[i], word.getId());
+        }
+        WordlistMetrics.record(Operation.REPLACE, start, indices.length);
+        if (WordlistMetrics.isTracing(Operation.REPLACE))
+        {
+            WordlistMetrics.trace(Operation.REPLACE, "Replaced {0} words", indices.length);
+        }
+    }
+
+    /**
+     * Removes the word entries at the given positions in this list, and shifts
+     * the remaining elements to the left in a single pass. The indices refer
+     * to the list as it was before any of the words were removed, and may be
+     * given in any order.
+     *
+     * @param indices the indices of the elements to be removed
+     * @throws IndexOutOfBoundsException if an index is out of range
+     * <code>(index &lt; 0 || index &gt;= getEntryCount())</code>, in which
+     * case nothing is removed
+     */
+    @Override
+    public void removeWordEntriesAtIndices(int[] indices)
+    {
+        long start = WordlistMetrics.start();
+        int[] sortedIndices = IntStream.of(indices).sorted().distinct().toArray();
+        if (sortedIndices.length == 0)
+        {
+            return;
+        }
+        if (sortedIndices[0] < 0 || sortedIndices[sortedIndices.length - 1] >= wordlist.size())
+        {
+            throw new IndexOutOfBoundsException("Index out of range: " + Arrays.toString(indices) + ", Size: " + wordlist.size());
+        }
+
+        // record from the back, so that each index is still valid when the journal is replayed
+        for (int i = sortedIndices.length - 1; i >= 0; i--)
+        {
+            recordChange(WordlistJournal.Record.remove(sortedIndices[i]));
+            fireChange(WordlistChangeEvent.Change.Type.REMOVED, sortedIndices[i], wordlist.get(sortedIndices[i]).getId());
+        }
+        int next = 0;
+        int target = sortedIndices[0];
+        for (int i = target; i < wordlist.size(); i++)
+        {
+            WordEntry word = wordlist.get(i);
+            if (next < sortedIndices.length && sortedIndices[next] == i)
+            {
+                next++;
+                indicesById[word.getId()] = -1;
+                word.setId(WordEntry.NO_ID);
+                searchIndex.remove(word);
+            } else
+            {
+                indicesById[word.getId()] = target;
+                wordlist.set(target++, word);
+            }
+        }
+        wordlist.subList(target, wordlist.size()).clear();
+        WordlistMetrics.record(Operation.REMOVE, start, sortedIndices.length);
+        if (WordlistMetrics.isTracing(Operation.REMOVE))
+        {
+            WordlistMetrics.trace(Operation.REMOVE, "Removed {0} words, {1} left", sortedIndices.length, getEntryCount());
+        }
+    }
+
+    private void assignId(WordEntry word, int index)
+    {
+        if (nextId == indicesById.length)
+        {
+            indicesById = Arrays.copyOf(indicesById, indicesById.length * 2);
+        }
+        word.setId(nextId);
+        indicesById[nextId++] = index;
+    }
+
+    /**
+     * Finds the words in this list that may contain the given text in their
+     * dictionary form or definition, and optionally in their optional forms,
+     * using the trigram index of this list. Words that are not returned are
+     * guaranteed not to contain the text (ignoring case and diacritics), but
+     * the returned words still need to be checked.
+     *
+     * @param text the text to look for
+     * @param includeOptionalForms true if the optional forms should be searched
+     * as well
+     * @return the candidate words, or <code>null</code> if the text is too
+     * short for the index and every word has to be checked
+     * @see WordlistSearchIndex
+     */
+    public Set<WordEntry> findSearchCandidates(String text, boolean includeOptionalForms)
+    {
+        return searchIndex.findCandidates(text, includeOptionalForms);
+    }
+
+    /**
+     * Finds the words in this list whose dictionary form or definition, and
+     * optionally one of whose optional forms, is equal to the given text,
+     * ignoring case and diacritics. The words are looked up in a hash index of
+     * the list, so the time this takes doesn't depend on the size of the list.
+     *
+     * @param text the text to look for
+     * @param includeOptionalForms true if the optional forms should be
+     * compared as well
+     * @return the matching words, which have to be checked again if case or
+     * diacritics matter
+     * @see WordlistSearchIndex
+     */
+    public Set<WordEntry> findExactMatches(String text, boolean includeOptionalForms)
+    {
+        return searchIndex.findExactMatches(text, includeOptionalForms);
+    }
+
+    /**
+     * Finds the words in this list whose dictionary form or definition, and
+     * optionally one of whose optional forms, differs from the given text by
+     * at most the given number of inserted, deleted or substituted characters,
+     * ignoring case and diacritics. The words are looked up in BK-trees of all
+     * the forms in the list, which are built the first time they are needed.
+     *
+     * @param text the text to look for
+     * @param maxEditDistance the number of typos to tolerate
+     * @param includeOptionalForms true if the optional forms should be
+     * compared as well
+     * @return the matching words, which have to be checked again if case or
+     * diacritics matter
+     * @see WordlistSearchIndex
+     */
+    public Set<WordEntry> findFuzzyMatches(String text, int maxEditDistance, boolean includeOptionalForms)
+    {
+        return searchIndex.findFuzzyMatches(text, maxEditDistance, includeOptionalForms);
+    }
+
+    /**
+     * Finds the words in this list that the given text is a form of, i.e. the
+     * words that have the text as their dictionary form or as one of their
+     * optional forms.
+     *
+     * @param form the form to look up, e.g. "bilarna"
+     * @param folding the differences between characters to ignore
+     * @return where the form occurs, in no particular order
+     */
+    public List<WordlistSearchIndex.FormOccurrence> findWordsWithForm(String form, TextFolding folding)
+    {
+        return searchIndex.findForm(form, folding);
+    }
+
+    /**
+     * Finds the words in this list whose dictionary form starts with the given
+     * prefix, to suggest while the user types a new dictionary form. Case,
+     * diacritics and the article ("en", "ett" or "att") are ignored, so "bi"
+     * completes to "en bil". The words are looked up in a sorted index of the
+     * dictionary forms, so the time this takes depends on the number of words
+     * returned rather than the size of the list.
+     *
+     * @param prefix the beginning of a dictionary form
+     * @param limit the largest number of words to return
+     * @return the first words whose dictionary forms complete the prefix, in
+     * alphabetical order of their forms without the article
+     * @see WordlistSearchIndex
+     */
+    public List<WordEntry> findDictionaryFormCompletions(String prefix, int limit)
+    {
+        return searchIndex.findCompletions(prefix, limit);
+    }
+
+    /**
+     * Finds the words in this list that have the given dictionary form,
+     * ignoring case and the article, e.g. to warn the user before they add a
+     * word that is already in the list.
+     *
+     * @param dictionaryForm the dictionary form to look up
+     * @return the words with the dictionary form
+     * @see WordlistSearchIndex
+     */
+    public List<WordEntry> findWordsWithDictionaryForm(String dictionaryForm)
+    {
+        return searchIndex.findDictionaryForm(dictionaryForm);
+    }
+
+    /**
+     * @return a number that changes whenever the words in this list change,
+     * which can be used to invalidate cached search results
+     */
+    public int getSearchIndexVersion()
+    {
+        return searchIndex.getVersion();
     }
 
     /**
      * Removes all of the word entries from this list. The list will be empty
-     * after this call returns.
+     * after this call returns. Identifiers are handed out from zero again, so
+     * they don't grow every time a list is loaded; the listeners get the
+     * removal of the old identifiers before any change that reuses them.
      */
     public void clear()
     {
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Clearing word list ");
+        long start = WordlistMetrics.start();
+        int[] ids = wordlist.stream().mapToInt(WordEntry::getId).toArray();
+        wordlist.forEach((word) -> word.setId(WordEntry.NO_ID));
         wordlist.clear();
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Word list now has {0} entries", this.getEntryCount());
+        searchIndex.clear();
+        recordChange(WordlistJournal.Record.clear());
+        if (ids.length > 0)
+        {
+            fireChange(WordlistChangeEvent.Change.Type.REMOVED, 0, ids);
+        }
+        nextId = 0;
+        indicesById = new int[16];
+        WordlistMetrics.record(Operation.CLEAR, start, ids.length);
+        if (WordlistMetrics.isTracing(Operation.CLEAR))
+        {
+            WordlistMetrics.trace(Operation.CLEAR, "Cleared {0} words", ids.length);
+        }
+    }
+
+    private void recordChange(WordlistJournal.Record change)
+    {
+        generation++;
+        if (unsavedChanges != null)
+        {
+            unsavedChanges.add(change);
+        }
+    }
+
+    /**
+     * Adds a listener that is notified when the list changes. All changes
+     * made during one event on the Event Dispatch Thread are collected, and
+     * the listeners are notified of them together once that event has been
+     * handled, so views only have to update themselves once however many
+     * words were changed. While the list has listeners, it must only be
+     * changed on the Event Dispatch Thread.
+     *
+     * @param listener the listener to add
+     */
+    public void addWordlistListener(WordlistListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener that was added with
+     * <code>addWordlistListener()</code>.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeWordlistListener(WordlistListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a change to the pending notification, merging it into the previous
+     * change if possible, and schedules the notification if it isn't already.
+     */
+    private void fireChange(WordlistChangeEvent.Change.Type type, int firstIndex, int... ids)
+    {
+        if (listeners.isEmpty())
+        {
+            return;
+        }
+        WordlistChangeEvent.Change change = new WordlistChangeEvent.Change(type, firstIndex, ids);
+        if (pendingChanges == null)
+        {
+            pendingChanges = new ArrayList<>();
+            EventQueue.invokeLater(this::notifyListeners);
+        }
+        if (pendingChanges.isEmpty() || !pendingChanges.get(pendingChanges.size() - 1).merge(change))
+        {
+            pendingChanges.add(change);
+        }
+    }
+
+    private void notifyListeners()
+    {
+        WordlistChangeEvent event = new WordlistChangeEvent(this, pendingChanges);
+        pendingChanges = null;
+        for (WordlistListener listener : new ArrayList<>(listeners))
+        {
+            listener.wordlistChanged(event);
+        }
+    }
+
+    /**
+     * @return a number that is incremented by every change to this list
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * @return true if the list has been changed since it was last loaded or
+     * saved
+     */
+    public boolean isDirty()
+    {
+        return generation != savedGeneration;
+    }
+
+    /**
+     * Marks the list as saved up to the given generation. Changes made after
+     * that generation was taken still count as unsaved.
+     *
+     * @param generation the value of <code>getGeneration()</code> when the
+     * saved or loaded snapshot of the list was taken
+     */
+    public void markSaved(long generation)
+    {
+        savedGeneration = generation;
+    }
+
+    /**
+     * @return the journal of the file that this list was last loaded from or
+     * saved to, or null if there is none
+     */
+    public WordlistJournal getJournal()
+    {
+        return journal;
+    }
+
+    /**
+     * Ties this list to the given journal. The list must be equal to the
+     * snapshot of the journal with all of its records applied. Changes made to
+     * the list from now on are remembered until they are taken by
+     * <code>takeUnsavedChanges()</code>.
+     *
+     * @param journal the journal, or null to stop remembering changes
+     */
+    public void setJournal(WordlistJournal journal)
+    {
+        this.journal = journal;
+        this.unsavedChanges = (journal == null) ? null : new ArrayList<>();
+    }
+
+    /**
+     * Returns the changes made since the journal was set or this method was
+     * last invoked, and forgets them. They should be appended to the journal.
+     *
+     * @return the unsaved changes, which is empty if there is no journal
+     */
+    public List<WordlistJournal.Record> takeUnsavedChanges()
+    {
+        if (unsavedChanges == null)
+        {
+            return new ArrayList<>();
+        }
+        List<WordlistJournal.Record> changes = unsavedChanges;
+        unsavedChanges = new ArrayList<>();
+        return changes;
+    }
+
+    /**
+     * Puts changes taken by <code>takeUnsavedChanges()</code> that could not
+     * be saved back in front of the changes made since, so that the next save
+     * includes them.
+     */
+    private void restoreUnsavedChanges(List<WordlistJournal.Record> changes)
+    {
+        if (unsavedChanges != null && !changes.isEmpty())
+        {
+            unsavedChanges.addAll(0, changes);
+        }
     }
 
     /**
      * Loads a word entry list from the given file, and returns a
      * <code>WordlistModel</code> whose list is created from the found words in
-     * the file.
+     * the file and the changes in its journal. Both the binary format written
+     * by <code>saveToFile()</code> and the serialized lists written by earlier
+     * versions of GlosTrainer are supported; the latter are migrated to the
+     * binary format the next time the list is saved.
      *
      * @param file the file to load from
      * @return a new WordlistModel with a created word list
      * @throws IOException if the file was not found, could not be read etc.
      * @throws ClassNotFoundException if creation of the list failed
+     * @see WordlistJournal
      */
     public static WordlistModel loadFromFile(File file) throws IOException, ClassNotFoundException
     {
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Loading file {0} ", file.getCanonicalPath());
-
-        ObjectInputStream in = new ObjectInputStream(new FileInputStream(file));
-        List wordList = (ArrayList) in.readObject();
-        WordlistModel m = new WordlistModel();
-        m.wordlist = wordList;
-        return m;
+        long start = WordlistMetrics.start();
+        PerformanceEvents.Span span = PerformanceEvents.begin(PerformanceEvents.Phase.LOAD);
+        WordlistJournal journal = new WordlistJournal(file);
+        try (WordlistReader reader = WordlistReader.open(file))
+        {
+            List<WordlistJournal.Record> changes = journal.load();
+            WordlistModel m = new WordlistModel();
+            m.wordlist = new ArrayList<>(reader.getEntryCount());
+            while (reader.hasNext())
+            {
+                m.wordlist.add(reader.readEntry());
+            }
+            WordlistJournal.replay(changes, m.wordlist);
+            m.indicesById = new int[Math.max(16, m.wordlist.size())];
+            for (int i = 0; i < m.wordlist.size(); i++)
+            {
+                m.assignId(m.wordlist.get(i), i);
+                m.searchIndex.add(m.wordlist.get(i));
+            }
+            if (reader.isCurrentVersion())
+            {
+                m.setJournal(journal);
+            }
+            m.markSaved(m.getGeneration());
+            WordlistMetrics.record(Operation.LOAD, start, m.getEntryCount());
+            span.end(m.getEntryCount(), reader.getBytesRead(), file.getName());
+            if (WordlistMetrics.isTracing(Operation.LOAD))
+            {
+                WordlistMetrics.trace(Operation.LOAD, "Loaded {0} words from {1} with {2} journal records", m.getEntryCount(), file, changes.size());
+            }
+            return m;
+        }
     }
 
     /**
-     * Saves the word list to the given file.
+     * Saves the word list to the given file. If the list was loaded from or
+     * last saved to the same file, only the changes made since then are
+     * appended to the journal of the file, and the journal is compacted if it
+     * has grown large. Otherwise, the whole list is written in the binary
+     * format described in <code>WordlistFileFormat</code>.
      *
      * @param file the file to save to.
      * @throws IOException if the file could not be saved
+     * @see WordlistJournal
      */
     public void saveToFile(File file) throws IOException
     {
-        Logger.getLogger(WordlistModel.class.getName()).log(Level.INFO, "Attempting to save file to {0} ", file.getCanonicalPath());
-
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file)))
+        long start = WordlistMetrics.start();
+        PerformanceEvents.Span span = PerformanceEvents.begin(PerformanceEvents.Phase.SAVE);
+        long savingGeneration = generation;
+        if (journal != null && journal.getSnapshotFile().equals(file.getAbsoluteFile()))
+        {
+            List<WordlistJournal.Record> changes = takeUnsavedChanges();
+            try
+            {
+                if (journal.append(changes))
+                {
+                    if (!journal.needsCompaction())
+                    {
+                        markSaved(savingGeneration);
+                        WordlistMetrics.record(Operation.SAVE, start, changes.size());
+                        span.end(changes.size(), journal.getJournalFile().length(), journal.getJournalFile().getName());
+                        if (WordlistMetrics.isTracing(Operation.SAVE))
+                        {
+                            WordlistMetrics.trace(Operation.SAVE, "Appended {0} changes to the journal of {1}", changes.size(), file);
+                        }
+                        return;
+                    }
+                    // the changes are in the journal now, even if compacting it fails
+                    changes = new ArrayList<>();
+                }
+                journal.compact(wordlist);
+            } catch (IOException | RuntimeException ex)
+            {
+                restoreUnsavedChanges(changes);
+                throw ex;
+            }
+        } else
+        {
+            setJournal(new WordlistJournal(file));
+            journal.compact(wordlist);
+        }
+        markSaved(savingGeneration);
+        WordlistMetrics.record(Operation.SAVE, start, wordlist.size());
+        span.end(wordlist.size(), file.length(), file.getName());
+        if (WordlistMetrics.isTracing(Operation.SAVE))
         {
-            out.writeObject(wordlist);
+            WordlistMetrics.trace(Operation.SAVE, "Wrote {0} words to {1}", wordlist.size(), file);
         }
     }
 
-}
+}
\ No newline at end of file
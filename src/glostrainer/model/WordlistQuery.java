@@ -0,0 +1,284 @@
+package glostrainer.model;
+
+import java.util.Objects;
+
+/**
+ * An immutable description of what the user is looking for in the word list
+ * filter: the filter text, the states of the "Exact match" and "Include opt.
+ * forms" checkboxes, the number of typos to tolerate in fuzzy mode, and which
+ * differences between characters to ignore. The class also knows how to test
+ * a word entry against the query.
+ *
+ * The query text is folded once, when the query is created, and compared with
+ * the folded fields that each word entry caches (see <code>SearchKeys</code>),
+ * so testing a word doesn't fold or copy any of its fields.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public final class WordlistQuery
+{
+
+    private final String text;
+    private final boolean exactMatch;
+    private final boolean includeOptionalForms;
+    private final int maxEditDistance;
+    private final TextFolding folding;
+    private final String foldedText;
+
+    /**
+     * Creates a new query that is not fuzzy, and ignores case only in exact
+     * match mode.
+     *
+     * @param text the text to look for
+     * @param exactMatch true if a field has to be equal to the text (ignoring
+     * case), false if it only has to contain it (case-sensitive)
+     * @param includeOptionalForms true if the optional forms should be
+     * searched in addition to the dictionary form and definition
+     */
+    public WordlistQuery(String text, boolean exactMatch, boolean includeOptionalForms)
+    {
+        this(text, exactMatch, includeOptionalForms, 0);
+    }
+
+    /**
+     * Creates a new query that ignores case only in exact match and fuzzy
+     * mode.
+     *
+     * @param text the text to look for
+     * @param exactMatch true if a field has to be equal to the text, false if
+     * it only has to contain it. Ignored by fuzzy queries.
+     * @param includeOptionalForms true if the optional forms should be
+     * searched in addition to the dictionary form and definition
+     * @param maxEditDistance the number of typos to tolerate, or 0 for a
+     * query that is not fuzzy
+     */
+    public WordlistQuery(String text, boolean exactMatch, boolean includeOptionalForms, int maxEditDistance)
+    {
+        this(text, exactMatch, includeOptionalForms, maxEditDistance,
+                (exactMatch || maxEditDistance > 0) ? TextFolding.CASE : TextFolding.NONE);
+    }
+
+    /**
+     * Creates a new query. A fuzzy query, i.e. one with a maximum edit
+     * distance greater than zero, compares whole fields like an exact match
+     * query, but also accepts fields that differ from the text by up to that
+     * many inserted, deleted or substituted characters. The text and the
+     * fields are compared after being folded with the given folding.
+     *
+     * @param text the text to look for
+     * @param exactMatch true if a field has to be equal to the text, false if
+     * it only has to contain it. Ignored by fuzzy queries.
+     * @param includeOptionalForms true if the optional forms should be
+     * searched in addition to the dictionary form and definition
+     * @param maxEditDistance the number of typos to tolerate, or 0 for a
+     * query that is not fuzzy
+     * @param folding the differences between characters to ignore
+     */
+    public WordlistQuery(String text, boolean exactMatch, boolean includeOptionalForms, int maxEditDistance, TextFolding folding)
+    {
+        this.text = text;
+        this.exactMatch = exactMatch;
+        this.includeOptionalForms = includeOptionalForms;
+        this.maxEditDistance = maxEditDistance;
+        this.folding = folding;
+        this.foldedText = folding.fold(text);
+    }
+
+    /**
+     * @return the text to look for
+     */
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * @return true if a field has to be equal to the text
+     */
+    public boolean isExactMatch()
+    {
+        return exactMatch;
+    }
+
+    /**
+     * @return true if the optional forms are searched as well
+     */
+    public boolean isIncludeOptionalForms()
+    {
+        return includeOptionalForms;
+    }
+
+    /**
+     * @return the differences between characters that the query ignores
+     */
+    public TextFolding getFolding()
+    {
+        return folding;
+    }
+
+    /**
+     * @return true if fields within <code>getMaxEditDistance()</code> typos
+     * of the text match
+     */
+    public boolean isFuzzy()
+    {
+        return maxEditDistance > 0;
+    }
+
+    /**
+     * @return the number of typos that a fuzzy query tolerates, or 0 if the
+     * query is not fuzzy
+     */
+    public int getMaxEditDistance()
+    {
+        return maxEditDistance;
+    }
+
+    /**
+     * @return true if the text is empty, in which case every word matches
+     */
+    public boolean isEmpty()
+    {
+        return text.isEmpty();
+    }
+
+    /**
+     * Tests if the given word matches this query. If the query is not an exact
+     * match query, the dictionary form, definition, or comma-separated optional
+     * forms of the word must contain the text. Otherwise, the dictionary form,
+     * definition or one of the optional forms must be equal to the text. A
+     * fuzzy query matches if one of these fields is within the maximum edit
+     * distance of the text. In each case, the differences that the folding of
+     * the query ignores are disregarded.
+     *
+     * @param word the word to test
+     * @return true if the word matches
+     */
+    public boolean matches(WordEntry word)
+    {
+        if (isEmpty())
+        {
+            return true;
+        }
+        if (isFuzzy())
+        {
+            return getEditDistance(word) <= maxEditDistance;
+        }
+        SearchKeys keys = word.getSearchKeys(folding);
+        if (!exactMatch)
+        {
+            boolean wordIsInDictionaryFormOrDefinition
+                    = contains(keys.dictionaryForm)
+                    || contains(keys.definition);
+            if (wordIsInDictionaryFormOrDefinition || !includeOptionalForms)
+            {
+                return wordIsInDictionaryFormOrDefinition;
+            }
+            return keys.optionalFormsAsString.contains(foldedText);
+        } else // exact match
+        {
+            boolean wordIsDictionaryFormOrDefinition
+                    = foldedText.equals(keys.dictionaryForm)
+                    || foldedText.equals(keys.definition);
+            if (wordIsDictionaryFormOrDefinition || !includeOptionalForms)
+            {
+                return wordIsDictionaryFormOrDefinition;
+            }
+            for (String optionalForm : keys.optionalForms)
+            {
+                if (foldedText.equals(optionalForm))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the smallest number of typos that separate the text from the
+     * dictionary form, definition or, if they are searched, one of the
+     * optional forms of the given word, disregarding the differences that the
+     * folding of the query ignores. Used to rank the results of fuzzy
+     * queries.
+     *
+     * @param word the word to compare with
+     * @return the Levenshtein distance between the text and the closest field
+     */
+    public int getEditDistance(WordEntry word)
+    {
+        SearchKeys keys = word.getSearchKeys(folding);
+        int distance = Math.min(editDistance(keys.dictionaryForm), editDistance(keys.definition));
+        if (includeOptionalForms)
+        {
+            for (int i = 0; i < keys.optionalForms.length && distance > 0; i++)
+            {
+                distance = Math.min(distance, editDistance(keys.optionalForms[i]));
+            }
+        }
+        return distance;
+    }
+
+    private int editDistance(String foldedField)
+    {
+        if (foldedField == null || foldedField.isEmpty())
+        {
+            return Integer.MAX_VALUE;
+        }
+        return BKTree.editDistance(foldedText, foldedField);
+    }
+
+    /**
+     * Tests if every word that matches this query also matches the given
+     * query, so that only the words that matched the given query have to be
+     * tested against this one. This is the case when neither query is an
+     * exact match or fuzzy query, this query's text contains the other's, and
+     * this query searches no more fields than the other and ignores the same
+     * differences, e.g. when the user has typed another character.
+     *
+     * @param previous the query to compare with
+     * @return true if the words matching this query are a subset of the words
+     * matching <code>previous</code>
+     */
+    public boolean refines(WordlistQuery previous)
+    {
+        return !exactMatch && !previous.exactMatch
+                && !isFuzzy() && !previous.isFuzzy()
+                && folding == previous.folding
+                && (!includeOptionalForms || previous.includeOptionalForms)
+                && text.contains(previous.text);
+    }
+
+    private boolean contains(String foldedField)
+    {
+        return foldedField != null && foldedField.contains(foldedText);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (!(obj instanceof WordlistQuery))
+        {
+            return false;
+        }
+        WordlistQuery other = (WordlistQuery) obj;
+        return text.equals(other.text)
+                && exactMatch == other.exactMatch
+                && includeOptionalForms == other.includeOptionalForms
+                && maxEditDistance == other.maxEditDistance
+                && folding == other.folding;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(text, exactMatch, includeOptionalForms, maxEditDistance, folding);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("WordlistQuery{text=%s, exactMatch=%s, includeOptionalForms=%s, maxEditDistance=%d, folding=%s}",
+                text, exactMatch, includeOptionalForms, maxEditDistance, folding);
+    }
+}
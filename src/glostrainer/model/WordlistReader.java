@@ -0,0 +1,264 @@
+package glostrainer.model;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads word entries one at a time from a stream in the binary
+ * <code>.gtl</code> format described in <code>WordlistFileFormat</code>. The
+ * header is read when the reader is created, after which
+ * <code>getEntryCount()</code> tells how many times <code>readEntry()</code>
+ * may be invoked.
+ *
+ * Readers created with <code>open()</code> also accept lists written with Java
+ * serialization by earlier versions of GlosTrainer. Such a list can't be
+ * decoded incrementally, so it is deserialized as a whole when the reader is
+ * opened and then handed out one entry at a time.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class WordlistReader implements Closeable
+{
+
+    private final CountingInputStream in;
+    private final int version;
+    private final String[] formNames;
+    private final int entryCount;
+    private int entriesRead;
+
+    /**
+     * Entries of a version 1 (serialized) list, or null for binary files.
+     */
+    private final Iterator<WordEntry> legacyEntries;
+
+    /**
+     * Creates a reader and reads the file header from the given stream.
+     *
+     * @param in the stream to read from. It should be positioned at the start
+     * of the magic bytes, and it will be buffered by the reader.
+     * @throws IOException if the header is invalid or could not be read
+     */
+    public WordlistReader(InputStream in) throws IOException
+    {
+        this.in = new CountingInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 1 << 16));
+        this.legacyEntries = null;
+
+        byte[] magic = new byte[WordlistFileFormat.MAGIC.length];
+        for (int i = 0; i < magic.length; i++)
+        {
+            magic[i] = (byte) this.in.read();
+        }
+        if (!Arrays.equals(magic, WordlistFileFormat.MAGIC))
+        {
+            throw new IOException("Not a GlosTrainer word list file");
+        }
+        this.version = (this.in.read() << 8) | this.in.read();
+        if (version < 2 || version > WordlistFileFormat.CURRENT_VERSION)
+        {
+            throw new IOException("Unsupported word list file version " + version);
+        }
+
+        formNames = new String[WordlistFileFormat.readVarInt(this.in)];
+        for (int i = 0; i < formNames.length; i++)
+        {
+            // intern so that every entry shares the same key instances
+            formNames[i] = WordlistFileFormat.readString(this.in).intern();
+        }
+        entryCount = WordlistFileFormat.readVarInt(this.in);
+    }
+
+    private WordlistReader(CountingInputStream in, List<WordEntry> legacyList)
+    {
+        this.in = in;
+        this.version = 1;
+        this.formNames = new String[0];
+        this.entryCount = legacyList.size();
+        this.legacyEntries = legacyList.iterator();
+    }
+
+    /**
+     * Opens the given file for reading. Binary files are decoded lazily by
+     * <code>readEntry()</code>, while serialized files from earlier versions of
+     * GlosTrainer are deserialized before this method returns.
+     *
+     * @param file the file to read
+     * @return a reader positioned at the first entry of the file
+     * @throws IOException if the file could not be opened or is not a word
+     * list
+     * @throws ClassNotFoundException if a serialized list could not be created
+     */
+    public static WordlistReader open(File file) throws IOException, ClassNotFoundException
+    {
+        BufferedInputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        try
+        {
+            in.mark(2);
+            int streamMagic = (in.read() << 8) | in.read();
+            in.reset();
+            if (streamMagic != WordlistFileFormat.LEGACY_STREAM_MAGIC)
+            {
+                return new WordlistReader(in);
+            }
+
+            Logger.getLogger(WordlistReader.class.getName()).log(Level.INFO, "Migrating serialized word list {0}", file);
+            CountingInputStream countingIn = new CountingInputStream(in);
+            @SuppressWarnings("unchecked")
+            List<WordEntry> legacyList = (ArrayList<WordEntry>) new ObjectInputStream(countingIn).readObject();
+            return new WordlistReader(countingIn, legacyList);
+        } catch (IOException | ClassNotFoundException | RuntimeException ex)
+        {
+            in.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * @return the file format version of the stream, where 1 denotes a list
+     * written with Java serialization
+     */
+    public int getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @return true if the stream is in the format written by this release of
+     * GlosTrainer
+     */
+    public boolean isCurrentVersion()
+    {
+        return version == WordlistFileFormat.CURRENT_VERSION;
+    }
+
+    /**
+     * @return the string table of the stream
+     */
+    String[] getFormNames()
+    {
+        return formNames;
+    }
+
+    /**
+     * @return the total number of entries in the stream
+     */
+    public int getEntryCount()
+    {
+        return entryCount;
+    }
+
+    /**
+     * @return the number of entries read so far
+     */
+    public int getEntriesRead()
+    {
+        return entriesRead;
+    }
+
+    /**
+     * @return the number of bytes consumed from the underlying stream so far
+     */
+    public long getBytesRead()
+    {
+        return in.count;
+    }
+
+    /**
+     * @return true if there are more entries to read
+     */
+    public boolean hasNext()
+    {
+        return entriesRead < entryCount;
+    }
+
+    /**
+     * Reads the next word entry from the stream.
+     *
+     * @return the decoded word entry
+     * @throws IOException if the entry could not be read or is corrupt
+     */
+    public WordEntry readEntry() throws IOException
+    {
+        if (!hasNext())
+        {
+            throw new IOException("No more entries in word list file");
+        }
+        if (legacyEntries != null)
+        {
+            entriesRead++;
+            return legacyEntries.next();
+        }
+
+        WordEntry word = WordlistFileFormat.readEntry(in, formNames);
+        entriesRead++;
+        return word;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+
+    /**
+     * Keeps track of how many bytes have been read from a stream, so that
+     * callers can report progress.
+     */
+    private static class CountingInputStream extends FilterInputStream
+    {
+
+        private long count;
+
+        CountingInputStream(InputStream in)
+        {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            if (b >= 0)
+            {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int n = super.read(b, off, len);
+            if (n > 0)
+            {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,907 @@
+package glostrainer.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An inverted trigram index over the searchable fields of the word entries in
+ * a <code>WordlistModel</code>. Every entry is given an internal id, and for
+ * each folded three-character sequence (trigram) that occurs in a field,
+ * the index keeps a sorted list of the ids of the entries that contain it.
+ * Two separate sets of lists are kept: one for the dictionary form and
+ * definition, and one for the comma-separated optional forms string.
+ *
+ * Any entry whose field contains the query, or is equal to it, must contain
+ * every trigram of the query, so intersecting the lists of the query trigrams
+ * gives a small set of candidates without looking at the other entries. The
+ * candidates are a superset of the real matches (trigrams may occur in a
+ * different order, and the index ignores letter case and diacritics), so
+ * callers still need to check each candidate. Queries shorter than three
+ * characters have no trigrams and can't be answered by the index.
+ *
+ * Exact lookups are answered by a hash table from every folded field value
+ * (dictionary form, definition and each optional form) to the entries that
+ * have it, so that finding the entries that are equal to a text, or finding
+ * which word a form such as "bilarna" belongs to, doesn't depend on the size
+ * of the list.
+ *
+ * Fuzzy lookups, which find the entries with a field value within a few typos
+ * of a text, search BK-trees (see <code>BKTree</code>) over the distinct
+ * folded field values. There is a tree for each value length, since a value
+ * within <code>d</code> typos of the text can't be more than <code>d</code>
+ * characters shorter or longer. A tree is only built by the first fuzzy
+ * lookup that needs values of its length, so long values like definitions
+ * written as sentences are rarely compared. The values of entries added after
+ * that are queued, and added to the tree by the next fuzzy lookup that needs
+ * it. Values that no entry has anymore stay in the trees until they are
+ * rebuilt, and are skipped. The trees are only built and searched by fuzzy
+ * lookups, from a copy of the values, without holding the lock of the index,
+ * so that adding and removing entries on the Event Dispatch Thread doesn't
+ * wait for them.
+ *
+ * Completions and duplicates of a dictionary form that is being typed are
+ * looked up in a sorted map from every folded dictionary form, without its
+ * article (see <code>ARTICLES</code>), to the entries that have it. The forms
+ * that start with a prefix are a range of the map, so they are found in
+ * logarithmic time, and listing the first few of them doesn't depend on the
+ * size of the list.
+ *
+ * Removed entries are only marked as removed in the trigram lists; their ids
+ * are purged from the lists when the index is rebuilt, which happens once
+ * more than half of the ids belong to removed entries. They are removed from
+ * the hash table right away.
+ *
+ * The index is changed on the Event Dispatch Thread, but may be queried from
+ * a background thread, so the public methods are synchronized, except for
+ * <code>getVersion()</code>, which only reads a volatile field, and
+ * <code>findFuzzyMatches()</code>, which only holds the lock while it copies
+ * the values for its trees and while it looks up the values it found.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class WordlistSearchIndex
+{
+
+    /**
+     * The length of the character sequences that are indexed.
+     */
+    public static final int GRAM_LENGTH = 3;
+
+    /**
+     * The articles and infinitive marker that nouns and verbs are entered
+     * with, which are ignored when looking up dictionary forms, so that "bil"
+     * finds "en bil".
+     */
+    private static final String[] ARTICLES =
+    {
+        "en ", "ett ", "att "
+    };
+
+    /**
+     * Separates the two parts of a key of <code>dictionaryForms</code>. It
+     * sorts before every other character, so a key comes right after the keys
+     * of shorter forms that it starts with.
+     */
+    private static final char KEY_SEPARATOR = '\0';
+
+    private final GramTable primaryPostings = new GramTable();
+    private final GramTable optionalFormPostings = new GramTable();
+
+    /**
+     * The occurrences of each folded field value. Almost every value
+     * occurs only once, so the occurrences are kept in exactly sized arrays.
+     */
+    private final Map<String, FormOccurrence[]> occurrences = new HashMap<>();
+
+    /**
+     * The keys of <code>occurrences</code> by length, and possibly keys that
+     * have been removed from it since the trees were built. A length has no
+     * tree until a fuzzy lookup needs it. Only accessed while holding
+     * <code>formTreeLock</code>.
+     */
+    private final Map<Integer, BKTree> formTreesByLength = new HashMap<>();
+
+    /**
+     * The value of <code>formTreeGeneration</code> that the trees in
+     * <code>formTreesByLength</code> belong to. Only accessed while holding
+     * <code>formTreeLock</code>.
+     */
+    private int formTreesGeneration;
+
+    /**
+     * Held by fuzzy lookups while they build and search the trees. Always
+     * taken before the lock of the index, never while holding it.
+     */
+    private final Object formTreeLock = new Object();
+
+    /**
+     * The keys that have been added to <code>occurrences</code> since the keys
+     * of a tree were copied, by the length of the tree, to be added to the
+     * tree by the next fuzzy lookup that needs it. Has a list for every length
+     * that has a tree.
+     */
+    private final Map<Integer, List<String>> pendingFormKeys = new HashMap<>();
+
+    /**
+     * Incremented whenever the trees are thrown away, so that fuzzy lookups
+     * build them again.
+     */
+    private int formTreeGeneration;
+    private int removedFormCount;
+
+    /**
+     * The entries with each dictionary form, ignoring case. The key of a form
+     * is the form without its article, folded like the other keys of the
+     * index, followed by <code>KEY_SEPARATOR</code> and the whole form with
+     * its case folded (see <code>getDictionaryFormKey()</code>), so the
+     * forms that start with a prefix are ordered by the prefix, and each
+     * distinct form is a single key however many entries have it.
+     */
+    private final TreeMap<String, WordEntry[]> dictionaryForms = new TreeMap<>();
+
+    private final Map<WordEntry, Integer> ids = new IdentityHashMap<>();
+    private final List<WordEntry> entriesById = new ArrayList<>();
+    private int removedCount;
+
+    /**
+     * Incremented on every change, so that cached query results can be
+     * invalidated. Only written while holding the lock of the index, but read
+     * without it.
+     */
+    private volatile int version;
+
+    /**
+     * Adds the given word entry to the index.
+     *
+     * @param word the word entry to add
+     */
+    public synchronized void add(WordEntry word)
+    {
+        int id = entriesById.size();
+        entriesById.add(word);
+        ids.put(word, id);
+
+        addPostings(primaryPostings, getGrams(word.getSwedishDictionaryForm(), word.getDefinition()), id);
+        addPostings(optionalFormPostings, getGrams(word.getOptionalFormsAsString()), id);
+        for (FormOccurrence occurrence : getOccurrences(word))
+        {
+            String key = fold(occurrence.value);
+            FormOccurrence[] existing = occurrences.get(key);
+            if (existing == null)
+            {
+                occurrences.put(key, new FormOccurrence[]
+                {
+                    occurrence
+                });
+                List<String> pendingKeys = pendingFormKeys.get(key.length());
+                if (pendingKeys != null)
+                {
+                    pendingKeys.add(key);
+                }
+            } else
+            {
+                FormOccurrence[] grown = Arrays.copyOf(existing, existing.length + 1);
+                grown[existing.length] = occurrence;
+                occurrences.put(key, grown);
+            }
+        }
+        String dictionaryForm = getDictionaryFormKey(word.getSwedishDictionaryForm());
+        if (dictionaryForm != null)
+        {
+            WordEntry[] existing = dictionaryForms.get(dictionaryForm);
+            if (existing == null)
+            {
+                dictionaryForms.put(dictionaryForm, new WordEntry[]
+                {
+                    word
+                });
+            } else
+            {
+                WordEntry[] grown = Arrays.copyOf(existing, existing.length + 1);
+                grown[existing.length] = word;
+                dictionaryForms.put(dictionaryForm, grown);
+            }
+        }
+        version++;
+    }
+
+    /**
+     * Removes the given word entry from the index. Entries that are not in the
+     * index are ignored.
+     *
+     * @param word the word entry to remove
+     */
+    public synchronized void remove(WordEntry word)
+    {
+        Integer id = ids.remove(word);
+        if (id == null)
+        {
+            return;
+        }
+        entriesById.set(id, null);
+        for (FormOccurrence occurrence : getOccurrences(word))
+        {
+            String key = fold(occurrence.value);
+            FormOccurrence[] existing = occurrences.get(key);
+            if (existing == null)
+            {
+                continue;
+            }
+            FormOccurrence[] kept = Arrays.stream(existing)
+                    .filter((o) -> (o.word != word))
+                    .toArray(FormOccurrence[]::new);
+            if (kept.length == 0)
+            {
+                occurrences.remove(key);
+                removedFormCount++;
+            } else
+            {
+                occurrences.put(key, kept);
+            }
+        }
+        String dictionaryForm = getDictionaryFormKey(word.getSwedishDictionaryForm());
+        WordEntry[] existing = (dictionaryForm == null) ? null : dictionaryForms.get(dictionaryForm);
+        if (existing != null)
+        {
+            WordEntry[] kept = Arrays.stream(existing)
+                    .filter((w) -> (w != word))
+                    .toArray(WordEntry[]::new);
+            if (kept.length == 0)
+            {
+                dictionaryForms.remove(dictionaryForm);
+            } else
+            {
+                dictionaryForms.put(dictionaryForm, kept);
+            }
+        }
+        if (removedFormCount > 1024 && removedFormCount > occurrences.size())
+        {
+            discardFormTrees();
+        }
+        removedCount++;
+        version++;
+        if (removedCount > 1024 && removedCount > ids.size())
+        {
+            rebuild();
+        }
+    }
+
+    /**
+     * Removes all entries from the index.
+     */
+    public synchronized void clear()
+    {
+        primaryPostings.clear();
+        optionalFormPostings.clear();
+        occurrences.clear();
+        discardFormTrees();
+        dictionaryForms.clear();
+        ids.clear();
+        entriesById.clear();
+        removedCount = 0;
+        version++;
+    }
+
+    private void discardFormTrees()
+    {
+        pendingFormKeys.clear();
+        removedFormCount = 0;
+        formTreeGeneration++;
+    }
+
+    /**
+     * @return a number that changes whenever the contents of the index change
+     */
+    public int getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * Finds the entries that may contain the given text in their dictionary
+     * form or definition, or optionally in their optional forms. Letter case
+     * and diacritics are ignored. Entries that are not returned are
+     * guaranteed not to contain the text, however it is folded.
+     *
+     * @param text the text to look for
+     * @param includeOptionalForms true if the optional forms should be searched
+     * as well
+     * @return the candidate entries, or <code>null</code> if the text is too
+     * short to be looked up in the index
+     */
+    public synchronized Set<WordEntry> findCandidates(String text, boolean includeOptionalForms)
+    {
+        if (text.length() < GRAM_LENGTH)
+        {
+            return null;
+        }
+        long[] grams = getGrams(text);
+
+        Set<WordEntry> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectCandidates(primaryPostings, grams, result);
+        if (includeOptionalForms)
+        {
+            collectCandidates(optionalFormPostings, grams, result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the entries whose dictionary form or definition, or optionally one
+     * of whose optional forms, is equal to the given text, ignoring case and
+     * diacritics. The entries are found without looking at the other entries,
+     * but callers that tell letters with and without diacritics, or upper and
+     * lower case, apart still need to check each entry.
+     *
+     * @param text the text to look for
+     * @param includeOptionalForms true if the optional forms should be
+     * compared as well
+     * @return the matching entries
+     */
+    public synchronized Set<WordEntry> findExactMatches(String text, boolean includeOptionalForms)
+    {
+        Set<WordEntry> result = Collections.newSetFromMap(new IdentityHashMap<>());
+        FormOccurrence[] found = occurrences.get(fold(text));
+        if (found != null)
+        {
+            for (FormOccurrence occurrence : found)
+            {
+                if (includeOptionalForms || occurrence.formName == null)
+                {
+                    result.add(occurrence.word);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the entries whose dictionary form or definition, or optionally one
+     * of whose optional forms, is within the given Levenshtein distance of the
+     * given text, ignoring case and diacritics. Folding can only shorten the
+     * distance, so the result contains the matches under any folding, and
+     * callers that ignore fewer differences still need to check each entry.
+     * Entries added while the lookup runs may be missing from the result;
+     * callers can tell by comparing <code>getVersion()</code> before and after.
+     *
+     * @param text the text to look for
+     * @param maxDistance the largest number of inserted, deleted or
+     * substituted characters to accept
+     * @param includeOptionalForms true if the optional forms should be
+     * compared as well
+     * @return the matching entries
+     */
+    public Set<WordEntry> findFuzzyMatches(String text, int maxDistance, boolean includeOptionalForms)
+    {
+        String folded = fold(text);
+        int minLength = Math.max(1, folded.length() - maxDistance);
+        int maxLength = folded.length() + maxDistance;
+        synchronized (formTreeLock)
+        {
+            updateFormTrees(minLength, maxLength);
+            List<String> keys = new ArrayList<>();
+            for (int length = minLength; length <= maxLength; length++)
+            {
+                formTreesByLength.get(length).search(folded, maxDistance, (key, distance) -> keys.add(key));
+            }
+            synchronized (this)
+            {
+                Set<WordEntry> result = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (String key : keys)
+                {
+                    FormOccurrence[] found = occurrences.get(key);
+                    if (found != null)
+                    {
+                        for (FormOccurrence occurrence : found)
+                        {
+                            if (includeOptionalForms || occurrence.formName == null)
+                            {
+                                result.add(occurrence.word);
+                            }
+                        }
+                    }
+                }
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Builds the trees of the given lengths that don't exist yet, and adds the
+     * keys that are pending for the others. The keys are taken while holding
+     * the lock of the index, and added to the trees without it. Only invoked
+     * while holding <code>formTreeLock</code>.
+     */
+    private void updateFormTrees(int minLength, int maxLength)
+    {
+        while (true)
+        {
+            List<Integer> missingLengths = new ArrayList<>();
+            Map<Integer, List<String>> addedKeys = new HashMap<>();
+            String[] keys = null;
+            synchronized (this)
+            {
+                if (formTreesGeneration != formTreeGeneration)
+                {
+                    formTreesByLength.clear();
+                    formTreesGeneration = formTreeGeneration;
+                }
+                for (int length = minLength; length <= maxLength; length++)
+                {
+                    List<String> pendingKeys = pendingFormKeys.put(length, new ArrayList<>());
+                    if (!formTreesByLength.containsKey(length))
+                    {
+                        missingLengths.add(length);
+                    } else if (!pendingKeys.isEmpty())
+                    {
+                        addedKeys.put(length, pendingKeys);
+                    }
+                }
+                if (!missingLengths.isEmpty())
+                {
+                    keys = occurrences.keySet().toArray(new String[0]);
+                }
+            }
+
+            addedKeys.forEach((length, lengthKeys) -> lengthKeys.forEach(formTreesByLength.get(length)::add));
+            if (keys == null)
+            {
+                return;
+            }
+            Map<Integer, BKTree> builtTrees = new HashMap<>();
+            for (int length : missingLengths)
+            {
+                builtTrees.put(length, new BKTree());
+            }
+            for (String key : keys)
+            {
+                BKTree formTree = builtTrees.get(key.length());
+                if (formTree != null)
+                {
+                    formTree.add(key);
+                }
+            }
+            // the keys added while building are added, or the trees thrown away, by the next round
+            formTreesByLength.putAll(builtTrees);
+        }
+    }
+
+    /**
+     * Finds the words that have the given text as their dictionary form or as
+     * one of their optional forms, i.e. the words that the text is a form of.
+     * Definitions are not searched.
+     *
+     * @param form the form to look up
+     * @param folding the differences between characters to ignore
+     * @return the occurrences of the form, in the order the entries were
+     * added to the index
+     */
+    public synchronized List<FormOccurrence> findForm(String form, TextFolding folding)
+    {
+        List<FormOccurrence> result = new ArrayList<>();
+        FormOccurrence[] found = occurrences.get(fold(form));
+        if (found != null)
+        {
+            String foldedForm = folding.fold(form);
+            Arrays.stream(found)
+                    .filter((o) -> (!o.definition && foldedForm.equals(folding.fold(o.value))))
+                    .forEach(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the entries whose dictionary form starts with the given prefix,
+     * ignoring case, diacritics and the article of both, in the order of
+     * their folded dictionary forms. If the prefix starts with an article,
+     * only the dictionary forms with that article are returned. Each
+     * dictionary form is only returned once, for the first entry that was
+     * added with it, ignoring case.
+     *
+     * @param prefix the beginning of a dictionary form
+     * @param limit the largest number of entries to return
+     * @return the first entries that complete the prefix, or an empty list if
+     * the prefix is empty
+     */
+    public synchronized List<WordEntry> findCompletions(String prefix, int limit)
+    {
+        List<WordEntry> result = new ArrayList<>(Math.min(limit, 16));
+        String folded = fold(prefix);
+        String key = stripArticle(folded);
+        if (key.isEmpty())
+        {
+            return result;
+        }
+        int articleLength = getArticleLength(folded);
+        for (Map.Entry<String, WordEntry[]> entry : dictionaryForms.subMap(key, key + Character.MAX_VALUE).entrySet())
+        {
+            String formKey = entry.getKey();
+            if (articleLength == 0 || formKey.regionMatches(true, formKey.indexOf(KEY_SEPARATOR) + 1, folded, 0, articleLength))
+            {
+                result.add(entry.getValue()[0]);
+                if (result.size() == limit)
+                {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the entries that have the given dictionary form, ignoring case
+     * and the article of both, e.g. "en bil" for "Bil". Letters with and
+     * without diacritics are told apart, since "har" and "här" are different
+     * words.
+     *
+     * @param dictionaryForm the dictionary form to look up
+     * @return the entries with the dictionary form, in the order they were
+     * added to the index
+     */
+    public synchronized List<WordEntry> findDictionaryForm(String dictionaryForm)
+    {
+        List<WordEntry> result = new ArrayList<>();
+        String formKey = getDictionaryFormKey(dictionaryForm);
+        if (formKey == null)
+        {
+            return result;
+        }
+        String key = formKey.substring(0, formKey.indexOf(KEY_SEPARATOR) + 1);
+        String stripped = stripArticle(TextFolding.CASE.fold(dictionaryForm.trim()));
+        for (Map.Entry<String, WordEntry[]> entry : dictionaryForms.subMap(key, key + Character.MAX_VALUE).entrySet())
+        {
+            if (stripArticle(entry.getKey().substring(key.length())).equals(stripped))
+            {
+                result.addAll(Arrays.asList(entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the key of a dictionary form in <code>dictionaryForms</code>, or
+     * null if the form is empty.
+     */
+    private static String getDictionaryFormKey(String dictionaryForm)
+    {
+        String trimmed = (dictionaryForm == null) ? "" : dictionaryForm.trim();
+        if (trimmed.isEmpty())
+        {
+            return null;
+        }
+        return stripArticle(fold(trimmed)) + KEY_SEPARATOR + TextFolding.CASE.fold(trimmed);
+    }
+
+    /**
+     * Removes the article or infinitive marker that a trimmed dictionary form
+     * starts with, if any.
+     */
+    private static String stripArticle(String dictionaryForm)
+    {
+        int articleLength = getArticleLength(dictionaryForm);
+        return (articleLength == 0) ? dictionaryForm : dictionaryForm.substring(articleLength).trim();
+    }
+
+    /**
+     * Returns the length of the article or infinitive marker, including the
+     * space after it, that a trimmed dictionary form starts with, ignoring
+     * case, or 0 if it doesn't start with one.
+     */
+    private static int getArticleLength(String dictionaryForm)
+    {
+        for (String article : ARTICLES)
+        {
+            if (dictionaryForm.length() > article.length() && dictionaryForm.regionMatches(true, 0, article, 0, article.length()))
+            {
+                return article.length();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return every non-empty field value of the given word that can be looked
+     * up exactly
+     */
+    private static List<FormOccurrence> getOccurrences(WordEntry word)
+    {
+        List<FormOccurrence> result = new ArrayList<>(word.getOptionalFormCount() + 2);
+        addOccurrence(result, word, null, false, word.getSwedishDictionaryForm());
+        addOccurrence(result, word, null, true, word.getDefinition());
+        word.getOptionalForms().forEach((name, value) -> addOccurrence(result, word, name, false, value));
+        return result;
+    }
+
+    private static void addOccurrence(List<FormOccurrence> occurrences, WordEntry word, String formName, boolean definition, String value)
+    {
+        if (value != null && !value.isEmpty())
+        {
+            occurrences.add(new FormOccurrence(word, formName, definition, value));
+        }
+    }
+
+    /**
+     * Folds a text for the index, which ignores every difference that a query
+     * may ignore, so that it finds the candidates for any folding.
+     */
+    private static String fold(String text)
+    {
+        return TextFolding.CASE_AND_DIACRITICS.fold(text);
+    }
+
+    private void collectCandidates(GramTable postings, long[] grams, Set<WordEntry> result)
+    {
+        PostingList[] lists = new PostingList[grams.length];
+        for (int i = 0; i < grams.length; i++)
+        {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null)
+            {
+                return;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int candidateCount = candidates.length;
+        for (int i = 1; i < lists.length && candidateCount > 0; i++)
+        {
+            candidateCount = lists[i].retainAll(candidates, candidateCount);
+        }
+        for (int i = 0; i < candidateCount; i++)
+        {
+            WordEntry word = entriesById.get(candidates[i]);
+            if (word != null)
+            {
+                result.add(word);
+            }
+        }
+    }
+
+    private void rebuild()
+    {
+        List<WordEntry> liveEntries = new ArrayList<>(ids.size());
+        entriesById.stream().filter((word) -> (word != null)).forEach(liveEntries::add);
+        clear();
+        liveEntries.stream().forEach(this::add);
+    }
+
+    private static void addPostings(GramTable postings, long[] grams, int id)
+    {
+        for (long gram : grams)
+        {
+            postings.getOrCreate(gram).add(id);
+        }
+    }
+
+    /**
+     * Returns the distinct folded trigrams of the given texts in ascending
+     * order. Each trigram is packed into a long, 16 bits per character.
+     * Characters are folded like <code>fold()</code> folds them.
+     */
+    private static long[] getGrams(String... texts)
+    {
+        int capacity = 0;
+        for (String text : texts)
+        {
+            if (text != null)
+            {
+                capacity += Math.max(0, text.length() - GRAM_LENGTH + 1);
+            }
+        }
+        long[] grams = new long[capacity];
+        int n = 0;
+        for (String text : texts)
+        {
+            if (text == null)
+            {
+                continue;
+            }
+            for (int i = 0; i + GRAM_LENGTH <= text.length(); i++)
+            {
+                long gram = 0;
+                for (int j = 0; j < GRAM_LENGTH; j++)
+                {
+                    gram = (gram << 16) | TextFolding.CASE_AND_DIACRITICS.fold(text.charAt(i + j));
+                }
+                grams[n++] = gram;
+            }
+        }
+        Arrays.sort(grams, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++)
+        {
+            if (distinct == 0 || grams[distinct - 1] != grams[i])
+            {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * A field of a word entry that has a certain value: its dictionary form,
+     * its definition or one of its optional forms.
+     */
+    public static final class FormOccurrence
+    {
+
+        private final WordEntry word;
+        private final String formName;
+        private final boolean definition;
+        private final String value;
+
+        private FormOccurrence(WordEntry word, String formName, boolean definition, String value)
+        {
+            this.word = word;
+            this.formName = formName;
+            this.definition = definition;
+            this.value = value;
+        }
+
+        /**
+         * @return the word entry that has the value
+         */
+        public WordEntry getWord()
+        {
+            return word;
+        }
+
+        /**
+         * @return the name of the optional form that has the value, or null if
+         * the value is the dictionary form or definition of the word
+         */
+        public String getFormName()
+        {
+            return formName;
+        }
+
+        /**
+         * @return the value as it was entered, with its original letter case
+         */
+        public String getValue()
+        {
+            return value;
+        }
+    }
+
+    /**
+     * An open-addressing hash table from trigram to posting list, which avoids
+     * boxing the trigrams.
+     */
+    private static class GramTable
+    {
+
+        /**
+         * Marks a used slot, since a trigram only occupies the lower 48 bits.
+         */
+        private static final long USED = 1L << 48;
+
+        private long[] keys = new long[1024];
+        private PostingList[] lists = new PostingList[1024];
+        private int size;
+
+        PostingList get(long gram)
+        {
+            int mask = keys.length - 1;
+            for (int slot = hash(gram) & mask; keys[slot] != 0; slot = (slot + 1) & mask)
+            {
+                if (keys[slot] == (gram | USED))
+                {
+                    return lists[slot];
+                }
+            }
+            return null;
+        }
+
+        PostingList getOrCreate(long gram)
+        {
+            int mask = keys.length - 1;
+            int slot = hash(gram) & mask;
+            for (; keys[slot] != 0; slot = (slot + 1) & mask)
+            {
+                if (keys[slot] == (gram | USED))
+                {
+                    return lists[slot];
+                }
+            }
+            if (2 * (size + 1) > keys.length)
+            {
+                grow();
+                return getOrCreate(gram);
+            }
+            keys[slot] = gram | USED;
+            lists[slot] = new PostingList();
+            size++;
+            return lists[slot];
+        }
+
+        void clear()
+        {
+            keys = new long[1024];
+            lists = new PostingList[1024];
+            size = 0;
+        }
+
+        private void grow()
+        {
+            long[] oldKeys = keys;
+            PostingList[] oldLists = lists;
+            keys = new long[oldKeys.length * 2];
+            lists = new PostingList[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++)
+            {
+                if (oldKeys[i] != 0)
+                {
+                    int slot = hash(oldKeys[i] & ~USED) & mask;
+                    while (keys[slot] != 0)
+                    {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    lists[slot] = oldLists[i];
+                }
+            }
+        }
+
+        private static int hash(long gram)
+        {
+            long h = gram * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32);
+        }
+    }
+
+    /**
+     * A growable, sorted array of entry ids. Ids are handed out in increasing
+     * order, so appending keeps the array sorted.
+     */
+    private static class PostingList
+    {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id)
+        {
+            if (size == ids.length)
+            {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        /**
+         * Keeps only the first <code>count</code> ids of the sorted
+         * <code>candidates</code> array that are also in this list, moving
+         * them to the front of the array.
+         *
+         * @return the number of ids kept
+         */
+        int retainAll(int[] candidates, int count)
+        {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count; i++)
+            {
+                int found = Arrays.binarySearch(ids, from, size, candidates[i]);
+                if (found >= 0)
+                {
+                    candidates[kept++] = candidates[i];
+                    from = found + 1;
+                } else
+                {
+                    from = -found - 1;
+                }
+            }
+            return kept;
+        }
+    }
+}
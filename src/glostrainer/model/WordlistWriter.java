@@ -0,0 +1,300 @@
+package glostrainer.model;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes word entries to a stream in the binary <code>.gtl</code> format
+ * described in <code>WordlistFileFormat</code>. The header, including the
+ * number of entries, is written when the writer is created, and the entries are
+ * then written one at a time with <code>writeEntry()</code>. This means that
+ * very large lists can be written without having all of them in memory at
+ * once. The position of each entry is remembered until the offset table is
+ * written by <code>finish()</code>; up to <code>OFFSET_BUFFER_LENGTH</code>
+ * positions are kept in memory, and longer lists spill them to a temporary
+ * file, so the memory used by the writer doesn't grow with the list.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class WordlistWriter implements Closeable
+{
+
+    /**
+     * The number of entry positions that are kept in memory before they are
+     * spilled to a temporary file.
+     */
+    static final int OFFSET_BUFFER_LENGTH = 64 * 1024;
+
+    private final CountingOutputStream out;
+    private final Map<String, Integer> formNameIndices;
+    private final int entryCount;
+    private final long[] offsetBuffer;
+    private int bufferedOffsets;
+
+    /**
+     * The positions that didn't fit in <code>offsetBuffer</code>, in order,
+     * or null until the buffer is first full.
+     */
+    private File offsetFile;
+    private DataOutputStream offsetFileOut;
+
+    private int entriesWritten;
+    private boolean finished;
+
+    /**
+     * Creates a writer and writes the file header to the given stream. The
+     * string table will contain the optional forms of all word classes, plus
+     * any names in <code>extraFormNames</code> that are not among them (e.g.
+     * optional forms that have been renamed since an entry was created).
+     *
+     * @param out the stream to write to. It will be buffered by the writer.
+     * @param entryCount the exact number of entries that will be written
+     * @param extraFormNames additional optional form names, may be empty
+     * @throws IOException if the header could not be written
+     */
+    public WordlistWriter(OutputStream out, int entryCount, Collection<String> extraFormNames) throws IOException
+    {
+        this.out = new CountingOutputStream(new BufferedOutputStream(out, 1 << 16));
+        this.entryCount = entryCount;
+        this.offsetBuffer = new long[Math.min(entryCount, OFFSET_BUFFER_LENGTH)];
+        this.formNameIndices = new HashMap<>();
+
+        List<String> formNames = WordlistFileFormat.getSchemaFormNames();
+        for (String name : extraFormNames)
+        {
+            if (!formNames.contains(name))
+            {
+                formNames.add(name);
+            }
+        }
+
+        this.out.write(WordlistFileFormat.MAGIC);
+        this.out.write(WordlistFileFormat.CURRENT_VERSION >>> 8);
+        this.out.write(WordlistFileFormat.CURRENT_VERSION);
+        WordlistFileFormat.writeVarInt(this.out, formNames.size());
+        for (int i = 0; i < formNames.size(); i++)
+        {
+            WordlistFileFormat.writeString(this.out, formNames.get(i));
+            formNameIndices.put(formNames.get(i), i);
+        }
+        WordlistFileFormat.writeVarInt(this.out, entryCount);
+    }
+
+    /**
+     * Writes a complete word list to the given stream. The stream is flushed
+     * but not closed.
+     *
+     * @param out the stream to write to
+     * @param words the words to write
+     * @throws IOException if writing failed
+     */
+    public static void write(OutputStream out, List<WordEntry> words) throws IOException
+    {
+        WordlistWriter writer = new WordlistWriter(out, words.size(), getFormNames(words));
+        try
+        {
+            for (WordEntry word : words)
+            {
+                writer.writeEntry(word);
+            }
+            writer.finish();
+        } finally
+        {
+            writer.discard();
+        }
+    }
+
+    /**
+     * Collects the names of all optional forms used by the given words, in the
+     * order they are first encountered. The result can be passed as the
+     * <code>extraFormNames</code> argument of the constructor.
+     *
+     * @param words the words to collect optional form names from
+     * @return the optional form names used by the words
+     */
+    public static Collection<String> getFormNames(Collection<WordEntry> words)
+    {
+        Collection<String> formNames = new LinkedHashSet<>();
+        words.stream().forEach((word) ->
+        {
+            formNames.addAll(word.getOptionalForms().keySet());
+        });
+        return formNames;
+    }
+
+    /**
+     * Writes a single word entry.
+     *
+     * @param word the entry to write
+     * @throws IOException if writing failed, or if an optional form of the
+     * word is not in the string table of this writer
+     */
+    public void writeEntry(WordEntry word) throws IOException
+    {
+        if (entriesWritten == entryCount)
+        {
+            throw new IOException("Attempted to write more than the announced " + entryCount + " entries");
+        }
+        if (bufferedOffsets == offsetBuffer.length)
+        {
+            spillOffsets();
+        }
+        offsetBuffer[bufferedOffsets++] = out.count;
+        WordlistFileFormat.writeVarInt(out, word.getWordClass().ordinal());
+        WordlistFileFormat.writeString(out, word.getSwedishDictionaryForm());
+        WordlistFileFormat.writeString(out, word.getDefinition());
+        WordlistFileFormat.writeString(out, word.getUserNotes());
+
+        Map<String, String> optionalForms = word.getOptionalForms();
+        WordlistFileFormat.writeVarInt(out, optionalForms.size());
+        for (Map.Entry<String, String> form : optionalForms.entrySet())
+        {
+            Integer nameIndex = formNameIndices.get(form.getKey());
+            if (nameIndex == null)
+            {
+                throw new IOException("Optional form \"" + form.getKey() + "\" is missing from the string table");
+            }
+            WordlistFileFormat.writeVarInt(out, nameIndex);
+            WordlistFileFormat.writeString(out, form.getValue());
+        }
+        entriesWritten++;
+    }
+
+    /**
+     * Verifies that the announced number of entries has been written, writes
+     * the offset table and flushes the underlying stream without closing it.
+     * Invoking this method more than once has no further effect.
+     *
+     * @throws IOException if fewer entries than announced were written, or if
+     * writing failed
+     */
+    public void finish() throws IOException
+    {
+        if (finished)
+        {
+            return;
+        }
+        if (entriesWritten != entryCount)
+        {
+            throw new IOException(String.format("Announced %d entries but only wrote %d", entryCount, entriesWritten));
+        }
+        DataOutputStream dataOut = new DataOutputStream(out);
+        long offsetTablePosition = out.count;
+        if (offsetFile != null)
+        {
+            offsetFileOut.close();
+            Files.copy(offsetFile.toPath(), dataOut);
+            discard();
+        }
+        for (int i = 0; i < bufferedOffsets; i++)
+        {
+            dataOut.writeLong(offsetBuffer[i]);
+        }
+        dataOut.writeLong(offsetTablePosition);
+        dataOut.flush();
+        finished = true;
+    }
+
+    /**
+     * Appends the buffered entry positions to the temporary offset file,
+     * creating it if needed, and empties the buffer.
+     */
+    private void spillOffsets() throws IOException
+    {
+        if (offsetFile == null)
+        {
+            offsetFile = File.createTempFile("glostrainer", ".offsets");
+            offsetFile.deleteOnExit();
+            offsetFileOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(offsetFile), 1 << 16));
+        }
+        for (int i = 0; i < bufferedOffsets; i++)
+        {
+            offsetFileOut.writeLong(offsetBuffer[i]);
+        }
+        bufferedOffsets = 0;
+    }
+
+    /**
+     * Deletes the temporary file that the entry positions of a long list are
+     * spilled to, without finishing the file or closing the stream. Should be
+     * invoked when writing is given up before <code>finish()</code>, e.g.
+     * because it failed or was cancelled. Has no effect after
+     * <code>finish()</code> or <code>close()</code>.
+     *
+     * @throws IOException if the temporary file could not be deleted
+     */
+    public void discard() throws IOException
+    {
+        if (offsetFile != null)
+        {
+            offsetFileOut.close();
+            Files.deleteIfExists(offsetFile.toPath());
+            offsetFile = null;
+            offsetFileOut = null;
+        }
+    }
+
+    /**
+     * Finishes the file and closes the underlying stream.
+     *
+     * @throws IOException if the file could not be finished or closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            finish();
+        } finally
+        {
+            try
+            {
+                discard();
+            } finally
+            {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Keeps track of the position in the file, so that the offsets of the
+     * entries are known.
+     */
+    private static class CountingOutputStream extends FilterOutputStream
+    {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out)
+        {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
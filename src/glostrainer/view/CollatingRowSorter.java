@@ -0,0 +1,596 @@
+package glostrainer.view;
+
+import glostrainer.model.PerformanceEvents;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+
+/**
+ * A row sorter that sorts every column by the lower-cased string value of its
+ * cells, according to a <code>Collator</code>, and shows the rows that a
+ * filter has already found, in the order it found them in. This gives the
+ * same order as comparing the lower-cased strings with
+ * <code>Collator.compare()</code>, but instead of collating two strings for
+ * every comparison, the <code>CollationKey</code> of each cell is computed
+ * once and cached, so sorting only has to compare the keys.
+ *
+ * Unlike a <code>TableRowSorter</code>, this sorter never filters rows itself.
+ * The rows to show are handed to it ready-made (see
+ * <code>setShownRows()</code>), e.g. by a filter that ran in the background,
+ * and are shown as they are as long as the table isn't sorted by a column, so
+ * showing a filter result doesn't test, or sort, any rows on the Event
+ * Dispatch Thread. When the table is sorted by a column, every row of the
+ * model is sorted once, and the order is kept until the sort keys change, so
+ * showing a filter result only has to pick the shown rows out of it.
+ *
+ * The keys are cached per model row and column, and computed the first time a
+ * column is sorted. The table keeps the cache, the order and the shown rows in
+ * step with the model by forwarding the model's change events to the sorter:
+ * inserted and deleted rows are inserted into and removed from them, and the
+ * keys of updated rows are dropped. Inserted rows are shown once the next
+ * filter result is, unless every row is shown. Like a
+ * <code>TableRowSorter</code>, updated rows keep their place in the table
+ * until the rows are sorted again.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ * @param <M> the type of the table model
+ */
+public class CollatingRowSorter<M extends TableModel> extends RowSorter<M>
+{
+
+    /**
+     * The number of columns that the table can be sorted by at a time.
+     */
+    private static final int MAX_SORT_KEYS = 3;
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final M model;
+    private final Collator collator;
+
+    /**
+     * The number of rows in the model, as far as the sorter has been told.
+     */
+    private int modelRowCount;
+
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private final boolean[] unsortable;
+
+    /**
+     * The cached keys of each model row, or null for rows that have no keys
+     * yet. The list itself is null until the first key is requested.
+     */
+    private List<CollationKey[]> keys;
+
+    /**
+     * The model rows to show, in the order to show them in when the table
+     * isn't sorted by a column, or null if every row is shown.
+     */
+    private int[] shownRows;
+
+    /**
+     * The rank of each model row, or null if the rows are not ranked.
+     */
+    private IntUnaryOperator ranking;
+
+    /**
+     * Every model row, ordered by the sort keys, or null if there are no sort
+     * keys.
+     */
+    private int[] sortedRows;
+
+    /**
+     * The model row of each view row, or null if every model row is shown in
+     * model order. Arrays that have been handed out in an event are never
+     * modified.
+     */
+    private int[] viewToModel;
+
+    /**
+     * The view row of each model row, or -1 for rows that aren't shown, or
+     * null if it hasn't been needed since <code>viewToModel</code> changed.
+     */
+    private int[] modelToView;
+
+    /**
+     * Creates a row sorter for the given table model, which sorts the cells
+     * with the given collator.
+     *
+     * @param model the table model to sort
+     * @param collator the collator to compare the cells with
+     */
+    public CollatingRowSorter(M model, Collator collator)
+    {
+        this.model = model;
+        this.collator = collator;
+        modelRowCount = model.getRowCount();
+        unsortable = new boolean[model.getColumnCount()];
+    }
+
+    @Override
+    public M getModel()
+    {
+        return model;
+    }
+
+    /**
+     * Sets whether the table can be sorted by the given column. Clicking the
+     * header of an unsortable column does nothing.
+     *
+     * @param column the column
+     * @param sortable true if the table can be sorted by the column
+     */
+    public void setSortable(int column, boolean sortable)
+    {
+        checkColumn(column);
+        unsortable[column] = !sortable;
+    }
+
+    /**
+     * @param column the column
+     * @return true if the table can be sorted by the column
+     */
+    public boolean isSortable(int column)
+    {
+        checkColumn(column);
+        return !unsortable[column];
+    }
+
+    /**
+     * Sorts the table by the given column in ascending order, or reverses the
+     * order if the table is already sorted by it. The previous sort keys are
+     * kept as secondary keys.
+     *
+     * @param column the column to sort by
+     */
+    @Override
+    public void toggleSortOrder(int column)
+    {
+        if (!isSortable(column))
+        {
+            return;
+        }
+        List<SortKey> newKeys = new ArrayList<>(sortKeys);
+        newKeys.removeIf((key) -> (key.getColumn() == column));
+        SortOrder order = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING)
+        {
+            order = SortOrder.DESCENDING;
+        }
+        newKeys.add(0, new SortKey(column, order));
+        setSortKeys(newKeys.subList(0, Math.min(newKeys.size(), MAX_SORT_KEYS)));
+    }
+
+    /**
+     * Sorts the table by the given keys, which are compared in order.
+     *
+     * @param keys the sort keys, or null to show the rows unsorted
+     */
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys)
+    {
+        List<SortKey> newKeys = new ArrayList<>();
+        if (keys != null)
+        {
+            for (SortKey key : keys)
+            {
+                checkColumn(key.getColumn());
+                if (key.getSortOrder() != SortOrder.UNSORTED)
+                {
+                    newKeys.add(key);
+                }
+            }
+        }
+        if (newKeys.equals(sortKeys))
+        {
+            return;
+        }
+        sortKeys = Collections.unmodifiableList(newKeys);
+        fireSortOrderChanged();
+        sort();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys()
+    {
+        return sortKeys;
+    }
+
+    /**
+     * Shows only the given model rows. As long as the table isn't sorted by a
+     * column, they are shown in the given order, so no rows are compared.
+     * Otherwise they are shown in the order of the sort keys, and if a
+     * ranking is given, rows with a lower rank are shown first, and rows with
+     * the same rank keep the order of the sort keys.
+     *
+     * @param rows the model rows to show, which must not be modified
+     * afterwards, or null to show every row
+     * @param ranking gives the rank of a model row, a small non-negative
+     * number such as an edit distance, or null if the rows are not ranked
+     */
+    public void setShownRows(int[] rows, IntUnaryOperator ranking)
+    {
+        shownRows = rows;
+        this.ranking = ranking;
+        updateView();
+    }
+
+    /**
+     * Sorts every row of the model by the sort keys again, and shows the rows
+     * in the new order. Sorting only compares the cached collation keys, but
+     * still takes O(n log n) time, so this is only done when the sort keys
+     * change, not when new rows are shown.
+     */
+    public void sort()
+    {
+        PerformanceEvents.Span span = PerformanceEvents.begin(PerformanceEvents.Phase.SORT);
+        sortedRows = sortKeys.isEmpty() ? null : sortRows(0, modelRowCount);
+        updateView();
+        span.end(modelRowCount, 0, "Sort keys " + sortKeys);
+    }
+
+    /**
+     * Works out which model row to show in each view row from the shown rows
+     * and the sorted rows, and tells the table. Takes at most linear time.
+     */
+    private void updateView()
+    {
+        int[] previous = (viewToModel != null) ? viewToModel : NO_ROWS;
+        viewToModel = computeViewToModel();
+        modelToView = null;
+        fireRowSorterChanged(previous);
+    }
+
+    private int[] computeViewToModel()
+    {
+        if (sortedRows == null || (shownRows == null && ranking == null))
+        {
+            return (sortedRows != null) ? sortedRows : shownRows;
+        }
+        int[] rows = sortedRows;
+        if (shownRows != null)
+        {
+            boolean[] shown = new boolean[modelRowCount];
+            for (int row : shownRows)
+            {
+                if (row < modelRowCount)
+                {
+                    shown[row] = true;
+                }
+            }
+            rows = Arrays.stream(sortedRows).filter((row) -> shown[row]).toArray();
+        }
+        return (ranking != null) ? rank(rows) : rows;
+    }
+
+    /**
+     * Orders the given rows by their rank with a counting sort, keeping the
+     * order of rows with the same rank.
+     */
+    private int[] rank(int[] rows)
+    {
+        int[] ranks = new int[rows.length];
+        int maxRank = 0;
+        for (int i = 0; i < rows.length; i++)
+        {
+            ranks[i] = ranking.applyAsInt(rows[i]);
+            maxRank = Math.max(maxRank, ranks[i]);
+        }
+        int[] starts = new int[maxRank + 2];
+        for (int rank : ranks)
+        {
+            starts[rank + 1]++;
+        }
+        for (int rank = 1; rank < starts.length; rank++)
+        {
+            starts[rank] += starts[rank - 1];
+        }
+        int[] ranked = new int[rows.length];
+        for (int i = 0; i < rows.length; i++)
+        {
+            ranked[starts[ranks[i]]++] = rows[i];
+        }
+        return ranked;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index)
+    {
+        if (viewToModel == null)
+        {
+            checkRow(index);
+            return index;
+        }
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index)
+    {
+        checkRow(index);
+        if (viewToModel == null)
+        {
+            return index;
+        }
+        if (modelToView == null)
+        {
+            modelToView = new int[modelRowCount];
+            Arrays.fill(modelToView, -1);
+            for (int view = 0; view < viewToModel.length; view++)
+            {
+                modelToView[viewToModel[view]] = view;
+            }
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount()
+    {
+        return (viewToModel != null) ? viewToModel.length : modelRowCount;
+    }
+
+    @Override
+    public int getModelRowCount()
+    {
+        return modelRowCount;
+    }
+
+    @Override
+    public void modelStructureChanged()
+    {
+        allRowsChanged();
+    }
+
+    /**
+     * Drops the cached keys and sorts the rows again. Shown rows that are no
+     * longer in the model are dropped, but the others are still shown until
+     * the next filter result is, so that the table doesn't show every row in
+     * the meantime.
+     */
+    @Override
+    public void allRowsChanged()
+    {
+        keys = null;
+        modelRowCount = model.getRowCount();
+        if (shownRows != null)
+        {
+            shownRows = Arrays.stream(shownRows).filter((row) -> row < modelRowCount).toArray();
+        }
+        sort();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow)
+    {
+        int count = endRow - firstRow + 1;
+        if (keys != null && firstRow <= keys.size())
+        {
+            keys.addAll(firstRow, Collections.nCopies(count, null));
+        }
+        modelRowCount += count;
+        shownRows = shiftRows(shownRows, firstRow, count);
+        if (sortedRows == null || viewToModel == sortedRows)
+        {
+            // every row is shown, or the shown rows in the given order
+            if (sortedRows != null)
+            {
+                sortedRows = mergeRows(shiftRows(sortedRows, firstRow, count), sortRows(firstRow, endRow + 1));
+            }
+            viewToModel = computeViewToModel();
+        } else
+        {
+            sortedRows = mergeRows(shiftRows(sortedRows, firstRow, count), sortRows(firstRow, endRow + 1));
+            viewToModel = shiftRows(viewToModel, firstRow, count);
+        }
+        modelToView = null;
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow)
+    {
+        if (keys != null && endRow < keys.size())
+        {
+            keys.subList(firstRow, endRow + 1).clear();
+        }
+        modelRowCount -= endRow - firstRow + 1;
+        boolean showingSortedRows = (sortedRows != null && viewToModel == sortedRows);
+        boolean showingShownRows = (sortedRows == null && viewToModel == shownRows);
+        shownRows = removeRows(shownRows, firstRow, endRow);
+        sortedRows = removeRows(sortedRows, firstRow, endRow);
+        if (showingSortedRows)
+        {
+            viewToModel = sortedRows;
+        } else if (showingShownRows)
+        {
+            viewToModel = shownRows;
+        } else
+        {
+            viewToModel = removeRows(viewToModel, firstRow, endRow);
+        }
+        modelToView = null;
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow)
+    {
+        dropKeys(firstRow, endRow);
+        resortRows(firstRow, endRow);
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column)
+    {
+        dropKeys(firstRow, endRow);
+        if (sortKeys.stream().anyMatch((key) -> (key.getColumn() == column)))
+        {
+            resortRows(firstRow, endRow);
+        }
+    }
+
+    private void dropKeys(int firstRow, int endRow)
+    {
+        if (keys != null)
+        {
+            for (int row = firstRow; row <= endRow && row < keys.size(); row++)
+            {
+                keys.set(row, null);
+            }
+        }
+    }
+
+    /**
+     * Moves the given rows to their new places in the sorted rows, without
+     * changing the view.
+     */
+    private void resortRows(int firstRow, int endRow)
+    {
+        if (sortedRows != null)
+        {
+            int[] otherRows = Arrays.stream(sortedRows).filter((row) -> (row < firstRow || row > endRow)).toArray();
+            sortedRows = mergeRows(otherRows, sortRows(firstRow, endRow + 1));
+        }
+    }
+
+    /**
+     * Adds the given count to the rows from the given one, or returns null if
+     * the rows are null.
+     */
+    private static int[] shiftRows(int[] rows, int fromRow, int count)
+    {
+        if (rows == null)
+        {
+            return null;
+        }
+        return Arrays.stream(rows).map((row) -> (row >= fromRow) ? row + count : row).toArray();
+    }
+
+    /**
+     * Removes the given range of rows, and moves the rows after it up, or
+     * returns null if the rows are null.
+     */
+    private static int[] removeRows(int[] rows, int firstRow, int endRow)
+    {
+        if (rows == null)
+        {
+            return null;
+        }
+        int count = endRow - firstRow + 1;
+        return Arrays.stream(rows)
+                .filter((row) -> (row < firstRow || row > endRow))
+                .map((row) -> (row > endRow) ? row - count : row)
+                .toArray();
+    }
+
+    /**
+     * @return the model rows in the given range, ordered by the sort keys
+     */
+    private int[] sortRows(int fromRow, int toRow)
+    {
+        Integer[] rows = new Integer[toRow - fromRow];
+        for (int i = 0; i < rows.length; i++)
+        {
+            rows[i] = fromRow + i;
+        }
+        Arrays.sort(rows, this::compareRows);
+        return Arrays.stream(rows).mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Merges two arrays of rows that are both ordered by the sort keys.
+     */
+    private int[] mergeRows(int[] rows1, int[] rows2)
+    {
+        int[] merged = new int[rows1.length + rows2.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++)
+        {
+            if (j == rows2.length || (i < rows1.length && compareRows(rows1[i], rows2[j]) <= 0))
+            {
+                merged[k] = rows1[i++];
+            } else
+            {
+                merged[k] = rows2[j++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Compares two model rows by the sort keys, and by their index if the
+     * keys are equal. Empty cells come first.
+     */
+    private int compareRows(int row1, int row2)
+    {
+        for (SortKey sortKey : sortKeys)
+        {
+            CollationKey key1 = getCollationKey(row1, sortKey.getColumn());
+            CollationKey key2 = getCollationKey(row2, sortKey.getColumn());
+            int result;
+            if (key1 == null || key2 == null)
+            {
+                result = (key1 == null) ? ((key2 == null) ? 0 : -1) : 1;
+            } else
+            {
+                result = key1.compareTo(key2);
+            }
+            if (result != 0)
+            {
+                return (sortKey.getSortOrder() == SortOrder.DESCENDING) ? -result : result;
+            }
+        }
+        return Integer.compare(row1, row2);
+    }
+
+    /**
+     * Returns the cached collation key of the given cell, computing it if
+     * needed.
+     */
+    private CollationKey getCollationKey(int row, int column)
+    {
+        if (keys == null || keys.size() != modelRowCount)
+        {
+            keys = new ArrayList<>(Collections.nCopies(modelRowCount, null));
+        }
+        CollationKey[] rowKeys = keys.get(row);
+        if (rowKeys == null)
+        {
+            rowKeys = new CollationKey[model.getColumnCount()];
+            keys.set(row, rowKeys);
+        }
+        if (rowKeys[column] == null)
+        {
+            Object value = model.getValueAt(row, column);
+            if (value == null)
+            {
+                return null;
+            }
+            rowKeys[column] = collator.getCollationKey(value.toString().toLowerCase());
+        }
+        return rowKeys[column];
+    }
+
+    private void checkColumn(int column)
+    {
+        if (column < 0 || column >= unsortable.length)
+        {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+    }
+
+    private void checkRow(int row)
+    {
+        if (row < 0 || row >= modelRowCount)
+        {
+            throw new IndexOutOfBoundsException("Invalid row: " + row);
+        }
+    }
+}
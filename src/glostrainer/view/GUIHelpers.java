@@ -7,6 +7,8 @@ import java.awt.Toolkit;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.net.URL;
+import java.text.ParseException;
+import java.text.RuleBasedCollator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -36,10 +38,36 @@ public class GUIHelpers
      */
     public static int CHECKBOX_SIZE = 20;
     
+    /**
+     * Collation rules for the Swedish alphabet: the letters A-Z as in English,
+     * followed by Å, Ä and Ö, in this particular order.
+     */
+    private static final String SWEDISH_ALPHABET_RULES = "< a < b < c < d < e < f < g < h < i"
+            + "< j < k < l < m < n < o < p < q < r < s < t < u"
+            + "< v < w < y < z < \u00E5 < \u00E4 < \u00F6";
+
     private GUIHelpers()
     {
     }
 
+    /**
+     * Creates a collator that sorts lower-case strings by the Swedish
+     * alphabet, regardless of the locale of the system.
+     *
+     * @return a new Swedish collator
+     */
+    public static RuleBasedCollator createSwedishCollator()
+    {
+        try
+        {
+            return new RuleBasedCollator(SWEDISH_ALPHABET_RULES);
+        } catch (ParseException ex)
+        {
+            // the rules are constant, so this shouldn't happen
+            throw new IllegalStateException(ex);
+        }
+    }
+
     /**
      * Retrieves an <code>ImageIcon</code> from the <code>images.jar</code>
      * archive from the given file name. If the file with the given file name
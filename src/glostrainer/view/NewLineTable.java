@@ -39,7 +39,7 @@ public class NewLineTable extends JTable {
         if(row < super.getRowCount()) {
             super.setValueAt(aValue, row, column);
         }
-        else {
+        else if (getModel() instanceof DefaultTableModel) {
             Object[] rowData = new Object[getColumnCount()];
             Arrays.fill(rowData, "");
             rowData[convertColumnIndexToModel(column)] = aValue;
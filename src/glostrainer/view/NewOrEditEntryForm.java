@@ -1,8 +1,12 @@
 package glostrainer.view;
 
 import glostrainer.model.WordClass;
+import glostrainer.model.WordEntry;
+import java.awt.Component;
 import java.awt.Dimension;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import javax.swing.*;
 import javax.swing.GroupLayout.ParallelGroup;
 import javax.swing.GroupLayout.SequentialGroup;
@@ -69,6 +73,15 @@ public class NewOrEditEntryForm implements IView
         dictionaryFormLabel = new JLabel("Dictionary form:");
         dictionaryFormField = new JTextField();
         dictionaryFormHelperLabel = new JLabel();
+        dictionaryFormWarningLabel = new JLabel();
+
+        completionList = new JList<>();
+        completionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        completionList.setFocusable(false);
+        completionList.setCellRenderer(new CompletionRenderer());
+        completionPopup = new JPopupMenu();
+        completionPopup.setFocusable(false);
+        completionPopup.add(new JScrollPane(completionList));
 
         definitionLabel = new JLabel("Definition:");
         definitionField = new JTextField(20);
@@ -188,6 +201,7 @@ public class NewOrEditEntryForm implements IView
         mandatoryFieldsLayout.setHorizontalGroup(mandatoryFieldsLayout.createSequentialGroup()
                 .addGroup(mandatoryFieldsLayout.createParallelGroup(GroupLayout.Alignment.CENTER)
                         .addComponent(dictionaryFormHelperLabel)
+                        .addComponent(dictionaryFormWarningLabel)
                         .addGroup(mandatoryFieldsLayout.createSequentialGroup()
                                 .addGroup(mandatoryFieldsLayout.createParallelGroup(GroupLayout.Alignment.LEADING)
                                         .addComponent(dictionaryFormLabel)
@@ -213,6 +227,9 @@ public class NewOrEditEntryForm implements IView
                                 .addGroup(
                                         mandatoryFieldsLayout.createParallelGroup(GroupLayout.Alignment.BASELINE)
                                         .addComponent(dictionaryFormHelperLabel))
+                                .addGroup(
+                                        mandatoryFieldsLayout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                                        .addComponent(dictionaryFormWarningLabel))
                                 .addGroup(
                                         mandatoryFieldsLayout.createParallelGroup(GroupLayout.Alignment.BASELINE)
                                         .addComponent(definitionLabel)
@@ -278,15 +295,57 @@ public class NewOrEditEntryForm implements IView
         bindEditEventsToTextComponents();
     }
 
+    /**
+     * Shows the given words in a dropdown list under the dictionary form text
+     * field, without taking the focus from the field, or hides the list if
+     * there are no words or the field is not showing.
+     *
+     * @param completions the words to suggest
+     */
+    public void showCompletions(List<WordEntry> completions)
+    {
+        if (completions.isEmpty() || !dictionaryFormField.isShowing())
+        {
+            hideCompletions();
+            return;
+        }
+        completionList.setListData(completions.toArray(new WordEntry[completions.size()]));
+        completionList.setVisibleRowCount(completions.size());
+        completionPopup.setPopupSize(dictionaryFormField.getWidth(), completionPopup.getPreferredSize().height);
+        completionPopup.show(dictionaryFormField, 0, dictionaryFormField.getHeight());
+    }
+
+    /**
+     * Hides the dropdown list of suggested words.
+     */
+    public void hideCompletions()
+    {
+        completionPopup.setVisible(false);
+    }
+
+    /**
+     * Shows a warning under the dictionary form text field, or removes it.
+     *
+     * @param html the warning, or an empty string to remove it
+     */
+    public void setDictionaryFormWarning(String html)
+    {
+        if (!html.equals(dictionaryFormWarningLabel.getText()))
+        {
+            dictionaryFormWarningLabel.setText(html);
+            dialog.pack();
+        }
+    }
+
     /**
      * Sets the values of the optional form text fields from the given
-     * LinkedHashMap. If the corresponding JTextfield does not exist, i.e. if
+     * map. If the corresponding JTextfield does not exist, i.e. if
      * the optional form has changed from an earlier version of this
      * application, show an alert to the user to update the entry.
      *
      * @param input
      */
-    public void setOptionalFormTextFieldValues(LinkedHashMap<String, String> input)
+    public void setOptionalFormTextFieldValues(Map<String, String> input)
     {
         //System.out.println("input " + input);
         for (String key : input.keySet())
@@ -380,6 +439,41 @@ public class NewOrEditEntryForm implements IView
         return userNotesTextArea;
     }
 
+    /**
+     * @return the list of suggested words under the dictionary form field
+     */
+    public JList<WordEntry> getCompletionList()
+    {
+        return completionList;
+    }
+
+    /**
+     * @return the dropdown that contains the list of suggested words
+     */
+    public JPopupMenu getCompletionPopup()
+    {
+        return completionPopup;
+    }
+
+    /**
+     * Shows each suggested word as its dictionary form, followed by its
+     * definition and word class in a smaller font.
+     */
+    private static class CompletionRenderer extends DefaultListCellRenderer
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus)
+        {
+            WordEntry word = (WordEntry) value;
+            String text = String.format("<html>%s <small>%s (%s)</small></html>",
+                    word.getSwedishDictionaryForm(), word.getDefinition(), word.getWordClass());
+            return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+        }
+    }
+
     private JPanel mandatoryFieldsPanel;
     private JPanel optionalFieldsPanel;
     private JScrollPane optionalFieldsScrollPane;
@@ -388,6 +482,7 @@ public class NewOrEditEntryForm implements IView
     private JTextField definitionField;
     private JLabel definitionLabel;
     private JLabel dictionaryFormHelperLabel;
+    private JLabel dictionaryFormWarningLabel;
     private JTextField dictionaryFormField;
     private JLabel dictionaryFormLabel;
     private JComboBox wordClassComboBox;
@@ -403,6 +498,9 @@ public class NewOrEditEntryForm implements IView
     private JButton okButton;
     private JButton cancelButton;
 
+    private JPopupMenu completionPopup;
+    private JList<WordEntry> completionList;
+
     private LinkedHashMap<String, JLabel> optionalWordFormsLabels;
     private LinkedHashMap<String, JTextField> optionalWordFormsTextFields;
 
@@ -0,0 +1,323 @@
+package glostrainer.view;
+
+import glostrainer.model.PerformanceEvents;
+import glostrainer.model.WordEntry;
+import glostrainer.model.WordlistChangeEvent;
+import glostrainer.model.WordlistModel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The table model of the quiz table. Every row corresponds to the word at the
+ * same index in a <code>WordlistModel</code>, and shows its word forms
+ * ("slots") next to checkboxes that tell whether the form should be included in
+ * the quiz. Slot 0 is the dictionary form, slot 1 the definition and the
+ * remaining slots are the optional forms of the word. Column 0 holds a
+ * checkbox for the whole row, and slot <i>k</i> is shown in columns
+ * <code>2k + 1</code> (checkbox) and <code>2k + 2</code> (word form).
+ *
+ * The checkbox states are kept in bit sets rather than as
+ * <code>Boolean</code> cells, and the number of selected word forms is kept up
+ * to date as the checkboxes are toggled, so <code>getSelectedCount()</code>
+ * never has to scan the table. The bits are indexed by the identifiers of the
+ * words rather than by row, so removing a row does not have to shift the
+ * selection of the rows after it. Since a word list hands out identifiers in
+ * increasing order and keeps its words in that order, the bits are in table
+ * order as well.
+ *
+ * Like <code>WordlistTableModel</code>, the words are read from the word list
+ * rather than copied, and the table model listens to the word list and keeps
+ * the row count it was last told about. Added and replaced words get all
+ * their word forms selected.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class QuizTableModel extends AbstractTableModel
+{
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of word forms that can be shown in one row; the dictionary
+     * form, the definition and up to eight optional forms.
+     */
+    public static final int FORM_SLOT_COUNT = 10;
+
+    private static final int FIRST_OPTIONAL_FORM_SLOT = 2;
+
+    private final WordlistModel wordlist;
+
+    private int rowCount;
+
+    /**
+     * The checkbox of slot <i>k</i> of the word with identifier <i>id</i> is
+     * bit <code>id * FORM_SLOT_COUNT + k</code>. Bits are only ever set for
+     * slots that hold a word form.
+     */
+    private final BitSet selectedForms = new BitSet();
+
+    /**
+     * The checkbox in column 0 of each row, by word identifier.
+     */
+    private final BitSet selectedRows = new BitSet();
+
+    /**
+     * The number of selected word forms, i.e. the cardinality of
+     * <code>selectedForms</code>.
+     */
+    private int selectedCount;
+
+    /**
+     * Creates a quiz table model for the given word list, with all word forms
+     * of the words in the list selected.
+     *
+     * @param wordlist the word list to read the words from
+     */
+    public QuizTableModel(WordlistModel wordlist)
+    {
+        this.wordlist = wordlist;
+        rowCount = wordlist.getEntryCount();
+        for (int row = 0; row < rowCount; row++)
+        {
+            setRowSelected(row, true);
+        }
+        wordlist.addWordlistListener(this::wordlistChanged);
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount()
+    {
+        return 1 + 2 * FORM_SLOT_COUNT;
+    }
+
+    @Override
+    public String getColumnName(int column)
+    {
+        switch (column)
+        {
+            case 2:
+                return "Dict. form";
+            case 4:
+                return "Definition";
+            default:
+                return column % 2 == 0 ? "Opt. form" : "";
+        }
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex)
+    {
+        return columnIndex % 2 == 0 && columnIndex > 0 ? String.class : Boolean.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex)
+    {
+        if (rowIndex >= wordlist.getEntryCount())
+        {
+            return false;
+        }
+        if (columnIndex == 0)
+        {
+            return true;
+        }
+        return columnIndex % 2 == 1 && getFormSlotCount(rowIndex) > slotOfColumn(columnIndex);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex)
+    {
+        if (rowIndex >= wordlist.getEntryCount())
+        {
+            // the row has been removed, and the table is about to be told
+            return null;
+        }
+        if (columnIndex == 0)
+        {
+            return selectedRows.get(wordlist.getWordEntryAtIndex(rowIndex).getId());
+        }
+        int slot = slotOfColumn(columnIndex);
+        WordEntry word = wordlist.getWordEntryAtIndex(rowIndex);
+        if (slot >= getFormSlotCount(word))
+        {
+            return null;
+        }
+        if (columnIndex % 2 == 1)
+        {
+            return selectedForms.get(word.getId() * FORM_SLOT_COUNT + slot);
+        }
+        return getWordForm(word, slot);
+    }
+
+    @Override
+    public void setValueAt(Object aValue, int rowIndex, int columnIndex)
+    {
+        boolean checked = Boolean.TRUE.equals(aValue);
+        if (columnIndex == 0)
+        {
+            setRowSelected(rowIndex, checked);
+            fireTableRowsUpdated(rowIndex, rowIndex);
+        } else if (columnIndex % 2 == 1)
+        {
+            setFormSelected(rowIndex, slotOfColumn(columnIndex), checked);
+            fireTableCellUpdated(rowIndex, columnIndex);
+        }
+    }
+
+    /**
+     * @return the number of selected word forms in the table
+     */
+    public int getSelectedCount()
+    {
+        return selectedCount;
+    }
+
+    /**
+     * Collects the selected word forms of all rows, in table order.
+     *
+     * @return the selected word forms
+     */
+    public List<String> getSelectedWordForms()
+    {
+        List<String> result = new ArrayList<>(selectedCount);
+        for (int bit = selectedForms.nextSetBit(0); bit >= 0; bit = selectedForms.nextSetBit(bit + 1))
+        {
+            String form = getWordForm(wordlist.getWordEntryById(bit / FORM_SLOT_COUNT), bit % FORM_SLOT_COUNT);
+            if (form != null && !form.isEmpty())
+            {
+                result.add(form);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks or unchecks every checkbox in the given column with a single
+     * table event. Column 0 selects or deselects every word form in the table.
+     *
+     * @param column the checkbox column
+     * @param checked the new state of the checkboxes
+     */
+    public void setColumnSelected(int column, boolean checked)
+    {
+        if (column == 0)
+        {
+            for (int row = 0; row < rowCount; row++)
+            {
+                setRowSelected(row, checked);
+            }
+            fireTableDataChanged();
+            return;
+        }
+        int slot = slotOfColumn(column);
+        for (int row = 0; row < rowCount; row++)
+        {
+            setFormSelected(row, slot, checked);
+        }
+        fireTableChanged(new TableModelEvent(this, 0, Math.max(rowCount - 1, 0), column));
+    }
+
+    /**
+     * Updates the selection after the word list has changed, and fires a
+     * single event for all changes.
+     */
+    private void wordlistChanged(WordlistChangeEvent e)
+    {
+        PerformanceEvents.Span span = PerformanceEvents.begin(PerformanceEvents.Phase.QUIZ_POPULATION);
+        for (WordlistChangeEvent.Change change : e.getChanges())
+        {
+            for (int i = 0; i < change.getSize(); i++)
+            {
+                int id = change.getId(i);
+                clearWord(id);
+                WordEntry word = wordlist.getWordEntryById(id);
+                if (change.getType() != WordlistChangeEvent.Change.Type.REMOVED && word != null)
+                {
+                    setWordSelected(word, true);
+                }
+            }
+        }
+        rowCount += e.getInsertedCount() - e.getRemovedCount();
+        fireTableChanged(WordlistTableModel.toTableModelEvent(this, e));
+        span.end(e.getChanges().stream().mapToInt(WordlistChangeEvent.Change::getSize).sum(), 0, e.getChanges().size() + " changes");
+    }
+
+    private void setRowSelected(int row, boolean checked)
+    {
+        setWordSelected(wordlist.getWordEntryAtIndex(row), checked);
+    }
+
+    private void setWordSelected(WordEntry word, boolean checked)
+    {
+        selectedRows.set(word.getId(), checked);
+        int slots = getFormSlotCount(word);
+        for (int slot = 0; slot < slots; slot++)
+        {
+            setFormSelected(word, slot, checked);
+        }
+    }
+
+    private void setFormSelected(int row, int slot, boolean checked)
+    {
+        setFormSelected(wordlist.getWordEntryAtIndex(row), slot, checked);
+    }
+
+    private void setFormSelected(WordEntry word, int slot, boolean checked)
+    {
+        if (slot >= getFormSlotCount(word))
+        {
+            return;
+        }
+        int bit = word.getId() * FORM_SLOT_COUNT + slot;
+        if (selectedForms.get(bit) != checked)
+        {
+            selectedForms.set(bit, checked);
+            selectedCount += checked ? 1 : -1;
+        }
+    }
+
+    private void clearWord(int id)
+    {
+        int from = id * FORM_SLOT_COUNT;
+        selectedCount -= selectedForms.get(from, from + FORM_SLOT_COUNT).cardinality();
+        selectedForms.clear(from, from + FORM_SLOT_COUNT);
+        selectedRows.clear(id);
+    }
+
+    private static int slotOfColumn(int column)
+    {
+        return (column - 1) / 2;
+    }
+
+    private int getFormSlotCount(int row)
+    {
+        return getFormSlotCount(wordlist.getWordEntryAtIndex(row));
+    }
+
+    private static int getFormSlotCount(WordEntry word)
+    {
+        return Math.min(FORM_SLOT_COUNT, FIRST_OPTIONAL_FORM_SLOT + word.getOptionalFormCount());
+    }
+
+    private static String getWordForm(WordEntry word, int slot)
+    {
+        switch (slot)
+        {
+            case 0:
+                return word.getSwedishDictionaryForm();
+            case 1:
+                return word.getDefinition();
+            default:
+                return word.getOptionalFormValue(slot - FIRST_OPTIONAL_FORM_SLOT);
+        }
+    }
+}
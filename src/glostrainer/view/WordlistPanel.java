@@ -1,9 +1,7 @@
 package glostrainer.view;
 
 import java.awt.*;
-import java.awt.event.ItemEvent;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 
 public class WordlistPanel extends JPanel
 {
@@ -35,61 +33,47 @@ public class WordlistPanel extends JPanel
         newEntryButton = new JButton();
         editEntryButton = new JButton();
         deleteEntryButton = new JButton();
+        formOfButton = new JButton();
         filterTextField = new JTextField();
         exactMatchCheckBox = new JCheckBox("Exact match", true);
         allFormsCheckButton = new JCheckBox("Include opt. forms", true);
+        fuzzyCheckBox = new JCheckBox("Fuzzy, typos:", false);
+        maxTyposSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 3, 1));
+        ignoreCaseCheckBox = new JCheckBox("Ignore case", false);
+        ignoreDiacriticsCheckBox = new JCheckBox("Ignore accents (ä = a)", false);
         wordlistTable = new NewLineTable();
         wordlistScrollPane = new JScrollPane(wordlistTable);
         bottomPanel = new JPanel();
         exportButton = new JButton();
         importButton = new JButton();
+        openReadOnlyButton = new JButton();
         printListButton = new JButton();
         newListButton = new JButton();
 
         entryCountLabel = new JLabel();
+        taskProgressBar = new JProgressBar();
+        taskProgressBar.setStringPainted(true);
+        taskProgressBar.setVisible(false);
+        cancelTaskButton = new JButton("Cancel");
+        cancelTaskButton.setVisible(false);
 
         entryPanel.setBorder(new CustomTitledBorder("Entry"));
 
         filterLabel = new JLabel("Filter:");
         filterTextField.setText("");
 
-        exactMatchCheckBox.addItemListener((ItemEvent e) ->
-        {
-            DefaultTableModel tm = (DefaultTableModel) wordlistTable.getModel();
-            tm.fireTableDataChanged();
-        });
-        allFormsCheckButton.addItemListener((ItemEvent e) ->
-        {
-            DefaultTableModel tm = (DefaultTableModel) wordlistTable.getModel();
-            tm.fireTableDataChanged();
-        });
         allFormsCheckButton.setToolTipText("Search in all forms. If this is turned off, "
                 + "the search will only look for the Swedish Dictionary Forms and Definition fields.");
+        fuzzyCheckBox.setToolTipText("Also find words that are spelled a little differently from the filter text, "
+                + "closest first. The number is how many letters may be wrong, missing or extra.");
+        maxTyposSpinner.setToolTipText(fuzzyCheckBox.getToolTipText());
+        ignoreCaseCheckBox.setToolTipText("Don't tell upper and lower case letters apart. Exact and fuzzy matches always ignore case.");
+        ignoreDiacriticsCheckBox.setToolTipText("Don't tell letters with and without accents apart, "
+                + "so that e.g. \"har\" also finds \"här\" when you don't have a Swedish keyboard.");
 
         wordlistTable.setRowSelectionAllowed(true);
         wordlistTable.setToolTipText(TABLE_TOOLTIP);
-        wordlistTable.setModel(new DefaultTableModel(
-                new Object[][]
-                {
-                },
-                new String[]
-                {
-                    "Swedish dictionary form", "Definition", "Word class", "Other forms"
-                }
-        )
-        {
-            @Override
-            public Class getColumnClass(int columnIndex)
-            {
-                return String.class;
-            }
-
-            @Override
-            public boolean isCellEditable(int rowIndex, int columnIndex)
-            {
-                return false;
-            }
-        });
+        wordlistTable.setModel(new WordlistTableModel());
 
         //wordlistTable.setFillsViewportHeight(true);
         wordlistTable.getColumnModel().getSelectionModel().setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
@@ -112,24 +96,40 @@ public class WordlistPanel extends JPanel
                 .addComponent(newEntryButton)
                 .addComponent(editEntryButton)
                 .addComponent(deleteEntryButton)
+                .addComponent(formOfButton)
                 .addGap(0, 100, Short.MAX_VALUE)
                 .addComponent(filterLabel)
                 .addComponent(filterTextField, 100, 150, Short.MAX_VALUE)
                 .addGroup(entryPanelLayout.createParallelGroup()
                         .addComponent(allFormsCheckButton)
                         .addComponent(exactMatchCheckBox)
+                        .addGroup(entryPanelLayout.createSequentialGroup()
+                                .addComponent(fuzzyCheckBox)
+                                .addComponent(maxTyposSpinner, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE))
+                )
+                .addGroup(entryPanelLayout.createParallelGroup()
+                        .addComponent(ignoreCaseCheckBox)
+                        .addComponent(ignoreDiacriticsCheckBox)
                 )
         );
         entryPanelLayout.setVerticalGroup(entryPanelLayout.createParallelGroup(GroupLayout.Alignment.BASELINE)
                 .addComponent(newEntryButton)
                 .addComponent(editEntryButton)
                 .addComponent(deleteEntryButton)
+                .addComponent(formOfButton)
                 .addComponent(filterTextField)
                 .addComponent(filterLabel)
                 .addComponent(allFormsCheckButton)
                 .addGroup(entryPanelLayout.createSequentialGroup()
                         .addComponent(allFormsCheckButton)
                         .addComponent(exactMatchCheckBox)
+                        .addGroup(entryPanelLayout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                                .addComponent(fuzzyCheckBox)
+                                .addComponent(maxTyposSpinner, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE))
+                )
+                .addGroup(entryPanelLayout.createSequentialGroup()
+                        .addComponent(ignoreCaseCheckBox)
+                        .addComponent(ignoreDiacriticsCheckBox)
                 )
         );
 
@@ -141,18 +141,24 @@ public class WordlistPanel extends JPanel
         importExportLayout.setHorizontalGroup(importExportLayout.createSequentialGroup()
                 .addComponent(importButton)
                 .addComponent(exportButton)
+                .addComponent(openReadOnlyButton)
                 .addContainerGap(GroupLayout.DEFAULT_SIZE, 50)
                 .addComponent(printListButton)
                 .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                 .addComponent(entryCountLabel)
                 .addContainerGap(GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                .addComponent(taskProgressBar, 100, 200, 250)
+                .addComponent(cancelTaskButton)
                 .addComponent(newListButton)
         );
         importExportLayout.setVerticalGroup(importExportLayout.createParallelGroup(GroupLayout.Alignment.BASELINE)
                 .addComponent(importButton)
                 .addComponent(exportButton)
+                .addComponent(openReadOnlyButton)
                 .addComponent(printListButton)
                 .addComponent(entryCountLabel)
+                .addComponent(taskProgressBar)
+                .addComponent(cancelTaskButton)
                 .addComponent(newListButton)
         );
 
@@ -182,6 +188,23 @@ public class WordlistPanel extends JPanel
         return entryCountLabel;
     }
 
+    /**
+     * @return the progress bar that shows the progress of loading or saving a
+     * list. It is hidden when no such task is running.
+     */
+    public JProgressBar getTaskProgressBar()
+    {
+        return taskProgressBar;
+    }
+
+    /**
+     * @return the button for cancelling a running load or save task
+     */
+    public JButton getCancelTaskButton()
+    {
+        return cancelTaskButton;
+    }
+
     /**
      * @return the allFormsCheckButton
      */
@@ -198,6 +221,39 @@ public class WordlistPanel extends JPanel
         return exactMatchCheckBox;
     }
 
+    /**
+     * @return the fuzzyCheckBox
+     */
+    public JCheckBox getFuzzyCheckBox()
+    {
+        return fuzzyCheckBox;
+    }
+
+    /**
+     * @return the spinner for the number of typos that the fuzzy search
+     * tolerates
+     */
+    public JSpinner getMaxTyposSpinner()
+    {
+        return maxTyposSpinner;
+    }
+
+    /**
+     * @return the ignoreCaseCheckBox
+     */
+    public JCheckBox getIgnoreCaseCheckBox()
+    {
+        return ignoreCaseCheckBox;
+    }
+
+    /**
+     * @return the ignoreDiacriticsCheckBox
+     */
+    public JCheckBox getIgnoreDiacriticsCheckBox()
+    {
+        return ignoreDiacriticsCheckBox;
+    }
+
     /**
      * @return the deleteEntryButton
      */
@@ -206,6 +262,14 @@ public class WordlistPanel extends JPanel
         return deleteEntryButton;
     }
 
+    /**
+     * @return the formOfButton
+     */
+    public JButton getFormOfButton()
+    {
+        return formOfButton;
+    }
+
     /**
      * @return the editEntryButton
      */
@@ -230,6 +294,15 @@ public class WordlistPanel extends JPanel
         return importButton;
     }
 
+    /**
+     * @return the button for opening a list read-only, or going back to the
+     * editable list
+     */
+    public JButton getOpenReadOnlyButton()
+    {
+        return openReadOnlyButton;
+    }
+
     public JButton getClearListButton()
     {
         return newListButton;
@@ -259,6 +332,14 @@ public class WordlistPanel extends JPanel
         return wordlistTable;
     }
 
+    /**
+     * @return the model of the word list table
+     */
+    public WordlistTableModel getWordlistTableModel()
+    {
+        return (WordlistTableModel) wordlistTable.getModel();
+    }
+
     /**
      *
      * @return
@@ -270,11 +351,17 @@ public class WordlistPanel extends JPanel
 
     private JCheckBox allFormsCheckButton;
     private JCheckBox exactMatchCheckBox;
+    private JCheckBox fuzzyCheckBox;
+    private JSpinner maxTyposSpinner;
+    private JCheckBox ignoreCaseCheckBox;
+    private JCheckBox ignoreDiacriticsCheckBox;
     private JButton deleteEntryButton;
     private JButton editEntryButton;
+    private JButton formOfButton;
     private JPanel entryPanel;
     private JButton exportButton;
     private JButton importButton;
+    private JButton openReadOnlyButton;
     private JPanel bottomPanel;
     private JButton newEntryButton;
     private JButton newListButton;
@@ -283,6 +370,8 @@ public class WordlistPanel extends JPanel
     private JScrollPane wordlistScrollPane;
     private JTable wordlistTable;
     private JLabel entryCountLabel;
+    private JProgressBar taskProgressBar;
+    private JButton cancelTaskButton;
     private JLabel filterLabel;
 
 }
@@ -0,0 +1,209 @@
+package glostrainer.view;
+
+import glostrainer.model.WordEntry;
+import glostrainer.model.WordlistChangeEvent;
+import glostrainer.model.WordlistInterface;
+import glostrainer.model.WordlistListener;
+import glostrainer.model.WordlistModel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableModel;
+
+/**
+ * A table model that reads its rows straight from a word list, such as a
+ * <code>WordlistModel</code> or a <code>MappedWordlist</code>, so the word list
+ * is not copied into the table.
+ * Cells are computed when the table asks for them. The only cell that is
+ * expensive to compute, the comma-separated list of optional forms, is kept in
+ * a small cache that is large enough to hold the rows that are currently
+ * visible, so scrolling and repainting does not rebuild the strings.
+ *
+ * When the word list is a <code>WordlistModel</code>, the table model listens
+ * to it, and fires a single table event for all changes that the list
+ * reports at once. Until then, the table keeps the row count it was last told
+ * about, so that it is never asked for rows that it doesn't know of. Other
+ * word lists can't change.
+ *
+ * @author Robert Sebescen (pgrobban at gmail dot com)
+ */
+public class WordlistTableModel extends AbstractTableModel
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUMN_NAMES =
+    {
+        "Swedish dictionary form", "Definition", "Word class", "Other forms"
+    };
+
+    /**
+     * The maximum number of optional forms strings to cache. This should be
+     * comfortably larger than the number of rows that fit on a screen.
+     */
+    private static final int OPTIONAL_FORMS_CACHE_SIZE = 512;
+
+    private WordlistInterface wordlist;
+
+    /**
+     * The number of rows that the table has been told about.
+     */
+    private int rowCount;
+
+    private final WordlistListener wordlistListener = this::wordlistChanged;
+
+    /**
+     * Recently requested optional forms strings in access order, keyed by
+     * word entry.
+     */
+    private final Map<WordEntry, String> optionalFormsCache = new LinkedHashMap<WordEntry, String>(OPTIONAL_FORMS_CACHE_SIZE, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<WordEntry, String> eldest)
+        {
+            return size() > OPTIONAL_FORMS_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Creates a table model without a word list. The table will be empty until
+     * <code>setWordlist()</code> is invoked.
+     */
+    public WordlistTableModel()
+    {
+        this.wordlist = new WordlistModel();
+    }
+
+    /**
+     * Sets the word list that this table model reads from, and notifies the
+     * table that all data has changed.
+     *
+     * @param wordlist the word list to show
+     */
+    public void setWordlist(WordlistInterface wordlist)
+    {
+        if (this.wordlist instanceof WordlistModel)
+        {
+            ((WordlistModel) this.wordlist).removeWordlistListener(wordlistListener);
+        }
+        this.wordlist = wordlist;
+        if (wordlist instanceof WordlistModel)
+        {
+            ((WordlistModel) wordlist).addWordlistListener(wordlistListener);
+        }
+        rowCount = wordlist.getEntryCount();
+        fireTableDataChanged();
+    }
+
+    /**
+     * @return the word list that this table model reads from
+     */
+    public WordlistInterface getWordlist()
+    {
+        return wordlist;
+    }
+
+    @Override
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount()
+    {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column)
+    {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex)
+    {
+        return String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex)
+    {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex)
+    {
+        if (rowIndex >= wordlist.getEntryCount())
+        {
+            // the row has been removed, and the table is about to be told
+            return null;
+        }
+        WordEntry word = wordlist.getWordEntryAtIndex(rowIndex);
+        if (columnIndex == WordlistPanel.SWEDISH_DICTIONARY_FORM_COLUMN)
+        {
+            return word.getSwedishDictionaryForm();
+        } else if (columnIndex == WordlistPanel.DEFINITION_COLUMN)
+        {
+            return word.getDefinition();
+        } else if (columnIndex == WordlistPanel.WORD_CLASS_COLUMN)
+        {
+            return word.getWordClass().toString();
+        } else
+        {
+            return optionalFormsCache.computeIfAbsent(word, WordEntry::getOptionalFormsAsString);
+        }
+    }
+
+    /**
+     * Drops cached cells when rows have been updated or the whole table has
+     * changed, before notifying the listeners.
+     *
+     * @param e the event to fire
+     */
+    @Override
+    public void fireTableChanged(TableModelEvent e)
+    {
+        if (e.getType() == TableModelEvent.UPDATE)
+        {
+            optionalFormsCache.clear();
+        }
+        super.fireTableChanged(e);
+    }
+
+    private void wordlistChanged(WordlistChangeEvent e)
+    {
+        rowCount += e.getInsertedCount() - e.getRemovedCount();
+        fireTableChanged(toTableModelEvent(this, e));
+    }
+
+    /**
+     * Describes the changes of a word list as a table event. A single change
+     * becomes an insert, update or delete event for its rows, while several
+     * changes become an event for the whole table.
+     *
+     * @param source the table model that fires the event
+     * @param e the changes of the word list
+     * @return the event to fire
+     */
+    static TableModelEvent toTableModelEvent(TableModel source, WordlistChangeEvent e)
+    {
+        if (e.getChanges().size() != 1)
+        {
+            return new TableModelEvent(source);
+        }
+        WordlistChangeEvent.Change change = e.getChanges().get(0);
+        switch (change.getType())
+        {
+            case INSERTED:
+                return new TableModelEvent(source, change.getFirstIndex(), change.getLastIndex(), TableModelEvent.ALL_COLUMNS, TableModelEvent.INSERT);
+            case REMOVED:
+                return new TableModelEvent(source, change.getFirstIndex(), change.getLastIndex(), TableModelEvent.ALL_COLUMNS, TableModelEvent.DELETE);
+            default:
+                return new TableModelEvent(source, change.getFirstIndex(), change.getLastIndex());
+        }
+    }
+}